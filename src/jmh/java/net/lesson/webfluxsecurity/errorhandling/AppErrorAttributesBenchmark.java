@@ -0,0 +1,32 @@
+package net.lesson.webfluxsecurity.errorhandling;
+
+import net.lesson.webfluxsecurity.exception.UnauthorizedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerRequest;
+
+@State(Scope.Benchmark)
+public class AppErrorAttributesBenchmark {
+    private AppErrorAttributes attributes;
+    private ServerRequest request;
+
+    @Setup
+    public void setUp() {
+        attributes = new AppErrorAttributes();
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/auth/info"));
+        attributes.storeErrorInformation(new UnauthorizedException("Token expired"), exchange);
+        request = ServerRequest.create(exchange, HandlerStrategies.withDefaults().messageReaders());
+    }
+
+    @Benchmark
+    public byte[] unauthorizedBody() {
+        var error = attributes.getError(request);
+        var type = AppErrorAttributes.errorType(error);
+        return WebExceptionHandler.errorBody(AppErrorAttributes.code(error, type), AppErrorAttributes.message(error, type));
+    }
+}
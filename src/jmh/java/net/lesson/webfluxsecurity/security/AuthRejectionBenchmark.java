@@ -0,0 +1,84 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import net.lesson.webfluxsecurity.enums.AuthFailureReason;
+import net.lesson.webfluxsecurity.exception.UnauthorizedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.security.Key;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@State(Scope.Benchmark)
+public class AuthRejectionBenchmark {
+    private JwtKeyProvider keyProvider;
+    private JwtHandler handler;
+    private String expiredToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        keyProvider = new JwtKeyProvider(JwtHandlerBenchmark.SECRET);
+        handler = new JwtHandler(keyProvider, new TokenRevocationService(null, Clock.systemUTC()),
+                Clock.systemUTC(), 30, 10_000);
+        expiredToken = Jwts.builder()
+                .setClaims(new HashMap<>(Map.of("role", "USER", "username", "benchmark")))
+                .setSubject("1")
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(Date.from(Instant.now().minus(2, ChronoUnit.HOURS)))
+                .setExpiration(Date.from(Instant.now().minus(1, ChronoUnit.HOURS)))
+                .signWith(keyProvider.getActiveKey().algorithm(), keyProvider.getActiveKey().signingKey())
+                .compact();
+        var valid = JwtHandlerBenchmark.token(keyProvider);
+        tamperedToken = valid.substring(0, valid.length() - 2) + (valid.endsWith("AA") ? "BB" : "AA");
+    }
+
+    @Benchmark
+    public void rejectExpiredToken(Blackhole blackhole) {
+        handler.check(expiredToken).subscribe(blackhole::consume, blackhole::consume);
+    }
+
+    @Benchmark
+    public void rejectTamperedToken(Blackhole blackhole) {
+        handler.check(tamperedToken).subscribe(blackhole::consume, blackhole::consume);
+    }
+
+    @Benchmark
+    public Object rejectExpiredTokenWithStackTraces() {
+        try {
+            return Jwts.parser()
+                    .setAllowedClockSkewSeconds(30)
+                    .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                        @Override
+                        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                            return keyProvider.resolveVerificationKey(header.getKeyId(), header.getAlgorithm());
+                        }
+                    })
+                    .parseClaimsJws(expiredToken);
+        } catch (RuntimeException ex) {
+            return new UnauthorizedException(ex.getMessage());
+        }
+    }
+
+    @Benchmark
+    public UnauthorizedException newException() {
+        return new UnauthorizedException("Token expired");
+    }
+
+    @Benchmark
+    public UnauthorizedException preallocatedException() {
+        return UnauthorizedException.of(AuthFailureReason.TOKEN_EXPIRED);
+    }
+}
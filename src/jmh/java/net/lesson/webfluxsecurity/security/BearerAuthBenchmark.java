@@ -0,0 +1,48 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+
+import java.time.Clock;
+
+@State(Scope.Benchmark)
+public class BearerAuthBenchmark {
+    private BearerTokenServerAuthConverter converter;
+    private MockServerWebExchange exchange;
+    private JwtHandler.VerificationResult verificationResult;
+
+    @Setup
+    public void setUp() {
+        var keyProvider = new JwtKeyProvider(JwtHandlerBenchmark.SECRET);
+        var revocations = new TokenRevocationService(null, Clock.systemUTC());
+        var handler = new JwtHandler(keyProvider, revocations, Clock.systemUTC(), 30, 10_000);
+        var token = JwtHandlerBenchmark.token(keyProvider);
+
+        converter = new BearerTokenServerAuthConverter(handler, new AuthMetrics(new SimpleMeterRegistry()));
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/auth/info")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        verificationResult = handler.check(token).block();
+    }
+
+    @Benchmark
+    public Authentication convert() {
+        return converter.convert(exchange).block();
+    }
+
+    @Benchmark
+    public Authentication createAuthentication() {
+        return UserAuthBearer.create(verificationResult);
+    }
+
+    @Benchmark
+    public Authentication cachedAuthentication() {
+        return verificationResult.authentication();
+    }
+}
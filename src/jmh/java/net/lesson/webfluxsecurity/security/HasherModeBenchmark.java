@@ -0,0 +1,41 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+@State(Scope.Benchmark)
+@Threads(64)
+public class HasherModeBenchmark {
+    private static final String PASSWORD = "#4!wqseR";
+
+    private ReactivePasswordHasher hasher;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        var encoder = new PBFDK2Encoder("FZK2DZ82odqS13e8aENggaMbb_fAkl-nJL4AEVBX43g", 10_000, 256, 64);
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        hasher = new ReactivePasswordHasher(encoder, new SimpleMeterRegistry(),
+                BlockingTaskExecutor.create(mode(), "password-hasher-", concurrency, 1024), 1);
+        encoded = encoder.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        hasher.destroy();
+    }
+
+    BlockingTaskExecutor.Mode mode() {
+        return BlockingTaskExecutor.Mode.PLATFORM;
+    }
+
+    @Benchmark
+    public Boolean matchesUnderLoad() {
+        return hasher.matches(PASSWORD, encoded).block();
+    }
+}
@@ -0,0 +1,52 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@State(Scope.Benchmark)
+public class JwtHandlerBenchmark {
+    static final String SECRET = "b5f59337a612a2a7dc07328f3e7d1a04722967c7f06df20a499a7d3f91ff2a7e";
+
+    private JwtHandler handler;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        var keyProvider = new JwtKeyProvider(SECRET);
+        var revocations = new TokenRevocationService(null, Clock.systemUTC());
+        handler = new JwtHandler(keyProvider, revocations, Clock.systemUTC(), 30, 10_000);
+        token = token(keyProvider);
+    }
+
+    @Benchmark
+    public JwtHandler.VerificationResult checkCached() {
+        return handler.check(token).block();
+    }
+
+    @Benchmark
+    public JwtHandler.VerificationResult verify() {
+        return handler.verify(token);
+    }
+
+    static String token(JwtKeyProvider keyProvider) {
+        return Jwts.builder()
+                .setClaims(new HashMap<>(Map.of("role", "USER", "username", "benchmark")))
+                .setSubject("1")
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(Date.from(Instant.now()))
+                .setExpiration(Date.from(Instant.now().plus(1, ChronoUnit.DAYS)))
+                .signWith(keyProvider.getActiveKey().algorithm(), keyProvider.getActiveKey().signingKey())
+                .compact();
+    }
+}
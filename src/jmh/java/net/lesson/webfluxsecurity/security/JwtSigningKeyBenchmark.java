@@ -0,0 +1,62 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+@State(Scope.Benchmark)
+public class JwtSigningKeyBenchmark {
+    private static final String SECRET = "b5f59337a612a2a7dc07328f3e7d1a04722967c7f06df20a499a7d3f91ff2a7e";
+
+    private final Map<String, Object> claims = Map.of("role", "USER", "username", "benchmark");
+    private JwtKeyProvider keyProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        keyProvider = new JwtKeyProvider(SECRET);
+        token = signWithPrecomputedKey();
+    }
+
+    @Benchmark
+    public String signWithEncodedSecret() {
+        return Jwts.builder()
+                .setClaims(new HashMap<>(claims))
+                .setSubject("1")
+                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .compact();
+    }
+
+    @Benchmark
+    public String signWithPrecomputedKey() {
+        return Jwts.builder()
+                .setClaims(new HashMap<>(claims))
+                .setSubject("1")
+                .signWith(keyProvider.getActiveKey().algorithm(), keyProvider.getActiveKey().signingKey())
+                .compact();
+    }
+
+    @Benchmark
+    public Claims parseWithEncodedSecret() {
+        return Jwts.parser()
+                .setSigningKey(Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims parseWithPrecomputedKey() {
+        return Jwts.parser()
+                .setSigningKey(keyProvider.getActiveKey().verificationKey())
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
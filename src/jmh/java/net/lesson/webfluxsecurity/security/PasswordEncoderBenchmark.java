@@ -0,0 +1,42 @@
+package net.lesson.webfluxsecurity.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+    private static final String PASSWORD = "#4!wqseR";
+
+    private PBFDK2Encoder encoder;
+    private String encoded;
+    private String legacyEncoded;
+
+    @Setup
+    public void setUp() {
+        encoder = new PBFDK2Encoder("FZK2DZ82odqS13e8aENggaMbb_fAkl-nJL4AEVBX43g", 64, 256, 64);
+        encoded = encoder.encode(PASSWORD);
+        legacyEncoded = encoder.legacyEncode(PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, encoded);
+    }
+
+    @Benchmark
+    public boolean matchesMismatch() {
+        return encoder.matches("#4!wqseX", encoded);
+    }
+
+    @Benchmark
+    public boolean matchesLegacy() {
+        return encoder.matches(PASSWORD, legacyEncoded);
+    }
+}
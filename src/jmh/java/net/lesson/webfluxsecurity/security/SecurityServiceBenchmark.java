@@ -0,0 +1,47 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.lesson.webfluxsecurity.enums.UserRole;
+import net.lesson.webfluxsecurity.service.UserAuthState;
+import net.lesson.webfluxsecurity.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+
+@State(Scope.Benchmark)
+public class SecurityServiceBenchmark {
+    private SecurityService service;
+    private UserAuthState user;
+
+    @Setup
+    public void setUp() {
+        service = securityService(new JwtKeyProvider(JwtHandlerBenchmark.SECRET), Clock.systemUTC());
+        user = new UserAuthState(1L, "benchmark", UserRole.USER, true);
+    }
+
+    @Benchmark
+    public TokenDetails generateToken() {
+        return service.generateToken(user);
+    }
+
+    static SecurityService securityService(JwtKeyProvider keyProvider, Clock clock) {
+        var registry = new SimpleMeterRegistry();
+        UserService userService = null;
+        ReactivePasswordHasher hasher = null;
+        RefreshTokenService refreshTokenService = new RefreshTokenService(null, clock);
+        TokenRevocationService revocations = new TokenRevocationService(null, clock);
+        LoginRateLimiter rateLimiter = new LoginRateLimiter(registry, clock, 100_000, 600, 20, 6, 5, 60);
+        LoginVerificationCache verifiedLogins = new LoginVerificationCache(registry, 10_000, 10);
+        AuthMetrics metrics = new AuthMetrics(registry);
+
+        var service = new SecurityService(userService, hasher, keyProvider, refreshTokenService, revocations,
+                rateLimiter, verifiedLogins, metrics, clock);
+        ReflectionTestUtils.setField(service, "expiration", 3600);
+        ReflectionTestUtils.setField(service, "issuer", "benchmark");
+        return service;
+    }
+}
@@ -0,0 +1,15 @@
+package net.lesson.webfluxsecurity.security;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+@State(Scope.Benchmark)
+@Threads(64)
+public class VirtualHasherModeBenchmark extends HasherModeBenchmark {
+
+    @Override
+    BlockingTaskExecutor.Mode mode() {
+        return BlockingTaskExecutor.Mode.VIRTUAL;
+    }
+}
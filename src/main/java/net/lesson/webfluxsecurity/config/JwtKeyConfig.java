@@ -0,0 +1,45 @@
+package net.lesson.webfluxsecurity.config;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.extern.slf4j.Slf4j;
+import net.lesson.webfluxsecurity.security.JwtKeyProvider;
+import net.lesson.webfluxsecurity.security.JwtSigningKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.nio.charset.StandardCharsets;
+
+@Slf4j
+@Configuration
+@EnableScheduling
+class JwtKeyConfig {
+    @Value("${jwt.secret}")
+    private String secret;
+    @Value("${jwt.signing.algorithm:HS256}")
+    private SignatureAlgorithm algorithm;
+    @Value("${jwt.signing.ec.privateKey:}")
+    private String privateKey;
+    @Value("${jwt.signing.ec.publicKey:}")
+    private String publicKey;
+
+    @Bean
+    public JwtKeyProvider jwtKeyProvider() {
+        return new JwtKeyProvider(signingKey());
+    }
+
+    private JwtSigningKey signingKey() {
+        if (algorithm.isHmac()) {
+            return JwtSigningKey.hmac(algorithm, secret.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!algorithm.isEllipticCurve()) {
+            throw new IllegalStateException("Unsupported jwt.signing.algorithm: " + algorithm);
+        }
+        if (privateKey.isBlank() || publicKey.isBlank()) {
+            log.warn("IN signingKey - no jwt.signing.ec keys configured, generating an ephemeral {} key pair", algorithm);
+            return JwtSigningKey.generateEllipticCurve(algorithm);
+        }
+        return JwtSigningKey.decode(algorithm, privateKey, publicKey);
+    }
+}
@@ -0,0 +1,43 @@
+package net.lesson.webfluxsecurity.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+class R2dbcPoolConfig {
+    private static final String POOL_NAME = "auth";
+
+    @Bean(destroyMethod = "dispose")
+    public TimedConnectionFactory connectionFactory(R2dbcProperties properties, MeterRegistry registry,
+                                                    @Value("${spring.r2dbc.pool.min-idle:0}") int minIdle) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(properties.getUsername()).to(username -> options.option(ConnectionFactoryOptions.USER, username));
+        map.from(properties.getPassword()).to(password -> options.option(ConnectionFactoryOptions.PASSWORD, password));
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options.build());
+
+        R2dbcProperties.Pool pool = properties.getPool();
+        ConnectionPoolConfiguration.Builder builder = ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(POOL_NAME);
+        map.from(pool.getInitialSize()).to(builder::initialSize);
+        map.from(pool.getMaxSize()).to(builder::maxSize);
+        map.from(minIdle).to(builder::minIdle);
+        map.from(pool.getMaxIdleTime()).to(builder::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(builder::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(builder::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(builder::maxCreateConnectionTime);
+        map.from(pool.getValidationQuery()).whenHasText().to(builder::validationQuery);
+        map.from(pool.getValidationDepth()).to(builder::validationDepth);
+
+        return new TimedConnectionFactory(new ConnectionPool(builder.build()), registry);
+    }
+}
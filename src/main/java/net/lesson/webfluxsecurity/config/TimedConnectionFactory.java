@@ -0,0 +1,60 @@
+package net.lesson.webfluxsecurity.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.R2dbcTimeoutException;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeoutException;
+
+class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+    private static final String ACQUIRE_TIMER = "r2dbc.pool.acquire";
+
+    private final ConnectionPool pool;
+    private final MeterRegistry registry;
+
+    TimedConnectionFactory(ConnectionPool pool, MeterRegistry registry) {
+        this.pool = pool;
+        this.registry = registry;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return pool.create()
+                    .doOnSuccess(connection -> stop(sample, "ok"))
+                    .doOnError(ex -> stop(sample, isTimeout(ex) ? "timeout" : "error"))
+                    .doOnCancel(() -> stop(sample, "cancelled"));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return pool.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return pool;
+    }
+
+    public void dispose() {
+        pool.dispose();
+    }
+
+    private static boolean isTimeout(Throwable ex) {
+        return ex instanceof TimeoutException || ex instanceof R2dbcTimeoutException;
+    }
+
+    private void stop(Timer.Sample sample, String outcome) {
+        sample.stop(Timer.builder(ACQUIRE_TIMER)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+}
@@ -2,9 +2,9 @@ package net.lesson.webfluxsecurity.config;
 
 import lombok.extern.slf4j.Slf4j;
 import net.lesson.webfluxsecurity.security.AuthManager;
+import net.lesson.webfluxsecurity.security.AuthMetrics;
 import net.lesson.webfluxsecurity.security.BearerTokenServerAuthConverter;
 import net.lesson.webfluxsecurity.security.JwtHandler;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,6 +14,7 @@ import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.util.matcher.NegatedServerWebExchangeMatcher;
 import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
 import reactor.core.publisher.Mono;
 
@@ -21,13 +22,12 @@ import reactor.core.publisher.Mono;
 @Configuration
 @EnableReactiveMethodSecurity
 class WebSecurityConfig {
-    @Value("${jwt.secret}")
-    private String secret;
-
-    private final String[] publicRoutes = {"/api/v1/auth/register", "/api/v1/auth/login"};
+    private final String[] publicRoutes = {"/api/v1/auth/register", "/api/v1/auth/login",
+            "/api/v1/auth/refresh", "/.well-known/jwks.json", "/actuator/health", "/actuator/prometheus"};
 
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, AuthManager manager) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, AuthManager manager,
+                                                         JwtHandler handler, AuthMetrics metrics) {
         return http
                 .csrf().disable()
                 .authorizeExchange()
@@ -48,14 +48,15 @@ class WebSecurityConfig {
                     return Mono.fromRunnable(() -> swe.getResponse().setStatusCode(HttpStatus.FORBIDDEN));
                 })
                 .and()
-                .addFilterAt(bearerFilter(manager), SecurityWebFiltersOrder.AUTHENTICATION)
+                .addFilterAt(bearerFilter(manager, handler, metrics), SecurityWebFiltersOrder.AUTHENTICATION)
                 .build();
     }
 
-    private AuthenticationWebFilter bearerFilter(AuthManager manager) {
+    private AuthenticationWebFilter bearerFilter(AuthManager manager, JwtHandler handler, AuthMetrics metrics) {
         AuthenticationWebFilter webFilter = new AuthenticationWebFilter(manager);
-        webFilter.setServerAuthenticationConverter(new BearerTokenServerAuthConverter(new JwtHandler(secret)));
-        webFilter.setRequiresAuthenticationMatcher(ServerWebExchangeMatchers.pathMatchers("/**"));
+        webFilter.setServerAuthenticationConverter(new BearerTokenServerAuthConverter(handler, metrics));
+        webFilter.setRequiresAuthenticationMatcher(
+                new NegatedServerWebExchangeMatcher(ServerWebExchangeMatchers.pathMatchers(publicRoutes)));
 
         return webFilter;
     }
@@ -0,0 +1,27 @@
+package net.lesson.webfluxsecurity.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@Table("refresh_tokens")
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenEntity {
+    @Id
+    private Long id;
+    private Long userId;
+    private String familyId;
+    private String tokenHash;
+    private boolean used;
+    private boolean revoked;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+}
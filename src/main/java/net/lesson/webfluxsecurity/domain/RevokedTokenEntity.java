@@ -0,0 +1,24 @@
+package net.lesson.webfluxsecurity.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@Table("revoked_tokens")
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedTokenEntity {
+    @Id
+    private Long id;
+    private String jti;
+    private Long userId;
+    private LocalDateTime expiresAt;
+    private LocalDateTime revokedAt;
+}
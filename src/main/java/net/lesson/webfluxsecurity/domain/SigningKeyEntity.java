@@ -0,0 +1,28 @@
+package net.lesson.webfluxsecurity.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder(toBuilder = true)
+@Table("signing_keys")
+@NoArgsConstructor
+@AllArgsConstructor
+public class SigningKeyEntity {
+    @Id
+    private Long id;
+    private String kid;
+    private String algorithm;
+    @ToString.Exclude
+    private String privateKey;
+    private String publicKey;
+    private LocalDateTime activatesAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,25 @@
+package net.lesson.webfluxsecurity.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum AuthFailureReason {
+    TOKEN_EXPIRED("Token expired", "UNAUTHORIZED", "expired"),
+    TOKEN_NOT_YET_VALID("Token not yet valid", "UNAUTHORIZED", "malformed"),
+    TOKEN_BAD_SIGNATURE("Invalid token signature", "UNAUTHORIZED", "bad-signature"),
+    TOKEN_MALFORMED("Malformed token", "UNAUTHORIZED", "malformed"),
+    TOKEN_NO_EXPIRATION("Token has no expiration", "UNAUTHORIZED", "malformed"),
+    TOKEN_REVOKED("Token revoked", "TOKEN_REVOKED", "revoked"),
+    USER_DISABLED("User disabled", "USER_ACCOUNT_DISABLED", "disabled"),
+    ACCOUNT_DISABLED("Account disabled", "USER_ACCOUNT_DISABLED", "disabled"),
+    BAD_CREDENTIALS("Account disabled or Invalid password", "USER_ACCOUNT_DISABLED or INVALID_PASSWORD", "bad-credentials"),
+    INVALID_USERNAME("Invalid username", "INVALID_USERNAME", "bad-credentials"),
+    INVALID_REFRESH_TOKEN("Invalid refresh token", "INVALID_REFRESH_TOKEN", "bad-refresh-token"),
+    REFRESH_TOKEN_REUSED("Refresh token reused", "REFRESH_TOKEN_REUSED", "refresh-token-reused");
+
+    private final String message;
+    private final String errorCode;
+    private final String outcome;
+}
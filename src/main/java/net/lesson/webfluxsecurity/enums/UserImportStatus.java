@@ -0,0 +1,8 @@
+package net.lesson.webfluxsecurity.enums;
+
+public enum UserImportStatus {
+    CREATED,
+    DUPLICATE,
+    INVALID,
+    FAILED
+}
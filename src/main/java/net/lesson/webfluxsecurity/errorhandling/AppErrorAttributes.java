@@ -5,64 +5,66 @@ import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureException;
 import net.lesson.webfluxsecurity.exception.ApiException;
 import net.lesson.webfluxsecurity.exception.AuthException;
-import net.lesson.webfluxsecurity.exception.UnauthorizedException;
-import org.springframework.boot.web.error.ErrorAttributeOptions;
+import net.lesson.webfluxsecurity.exception.ServiceBusyException;
+import net.lesson.webfluxsecurity.exception.TooManyRequestsException;
 import org.springframework.boot.web.reactive.error.DefaultErrorAttributes;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.server.ServerRequest;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 @Component
 public class AppErrorAttributes extends DefaultErrorAttributes {
-    private HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+    private static final ClassValue<ErrorType> ERROR_TYPES = new ClassValue<>() {
+        @Override
+        protected ErrorType computeValue(Class<?> type) {
+            return ErrorType.of(type);
+        }
+    };
 
     public AppErrorAttributes() {
         super();
     }
 
-    @Override
-    public Map<String, Object> getErrorAttributes(ServerRequest request, ErrorAttributeOptions options) {
-        var errorAttributes = super.getErrorAttributes(request, ErrorAttributeOptions.defaults());
-        var error = getError(request);
-
-        var errorList = new ArrayList<Map<String, Object>>();
+    static ErrorType errorType(Throwable error) {
+        return error == null ? ErrorType.INTERNAL : ERROR_TYPES.get(error.getClass());
+    }
 
-        if (error instanceof AuthException || error instanceof UnauthorizedException
-                || error instanceof ExpiredJwtException || error instanceof SignatureException
-                || error instanceof MalformedJwtException) {
-            status = HttpStatus.UNAUTHORIZED;
-            var errorMap = new LinkedHashMap<String, Object>();
-            errorMap.put("code", ((ApiException) error).getErrorCode());
-            errorMap.put("message", error.getMessage());
-            errorList.add(errorMap);
-        } else if (error instanceof ApiException) {
-            status = HttpStatus.BAD_REQUEST;
-            var errorMap = new LinkedHashMap<String, Object>();
-            errorMap.put("code", ((ApiException) error).getErrorCode());
-            errorMap.put("message", error.getMessage());
-            errorList.add(errorMap);
-        } else {
-            status = HttpStatus.INTERNAL_SERVER_ERROR;
-            var message = error.getMessage();
-            if (message == null)
-                message = error.getClass().getName();
+    static String code(Throwable error, ErrorType type) {
+        return error instanceof ApiException apiException ? apiException.getErrorCode() : type.defaultCode();
+    }
 
-            var errorMap = new LinkedHashMap<String, Object>();
-            errorMap.put("code", "INTERNAL_ERROR");
-            errorMap.put("message", message);
-            errorList.add(errorMap);
+    static String message(Throwable error, ErrorType type) {
+        if (error == null) {
+            return null;
+        }
+        var message = error.getMessage();
+        if (message == null && !type.expected()) {
+            return error.getClass().getName();
         }
+        return message;
+    }
 
-        var errors = new HashMap<String, Object>();
-        errors.put("errors", errorList);
-        errorAttributes.put("status", status.value());
-        errorAttributes.put("errors", errors);
+    record ErrorType(HttpStatus status, String defaultCode, boolean expected) {
+        static final ErrorType UNAUTHORIZED = new ErrorType(HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", true);
+        static final ErrorType SERVICE_BUSY = new ErrorType(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_BUSY", true);
+        static final ErrorType TOO_MANY_REQUESTS = new ErrorType(HttpStatus.TOO_MANY_REQUESTS, "TOO_MANY_REQUESTS", true);
+        static final ErrorType BAD_REQUEST = new ErrorType(HttpStatus.BAD_REQUEST, "BAD_REQUEST", true);
+        static final ErrorType INTERNAL = new ErrorType(HttpStatus.INTERNAL_SERVER_ERROR, "INTERNAL_ERROR", false);
 
-        return errorAttributes;
+        static ErrorType of(Class<?> type) {
+            if (AuthException.class.isAssignableFrom(type) || ExpiredJwtException.class.isAssignableFrom(type)
+                    || SignatureException.class.isAssignableFrom(type) || MalformedJwtException.class.isAssignableFrom(type)) {
+                return UNAUTHORIZED;
+            }
+            if (ServiceBusyException.class.isAssignableFrom(type)) {
+                return SERVICE_BUSY;
+            }
+            if (TooManyRequestsException.class.isAssignableFrom(type)) {
+                return TOO_MANY_REQUESTS;
+            }
+            if (ApiException.class.isAssignableFrom(type)) {
+                return BAD_REQUEST;
+            }
+            return INTERNAL;
+        }
     }
 }
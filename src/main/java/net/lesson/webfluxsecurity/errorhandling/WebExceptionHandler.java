@@ -1,36 +1,89 @@
 package net.lesson.webfluxsecurity.errorhandling;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import org.springframework.boot.autoconfigure.web.WebProperties;
 import org.springframework.boot.autoconfigure.web.reactive.error.AbstractErrorWebExceptionHandler;
-import org.springframework.boot.web.error.ErrorAttributeOptions;
 import org.springframework.boot.web.reactive.error.ErrorAttributes;
 import org.springframework.context.ApplicationContext;
 import org.springframework.http.MediaType;
 import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.stereotype.Component;
-import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.RequestPredicates;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
 class WebExceptionHandler extends AbstractErrorWebExceptionHandler {
+    private static final byte[] PREFIX = "{\"errors\":[{\"code\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MESSAGE = ",\"message\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "}]}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_CACHED_CODES = 256;
+    private static final Map<String, byte[]> CODES = new ConcurrentHashMap<>();
+
+    private final AppErrorAttributes attributes;
+
     public WebExceptionHandler(AppErrorAttributes attr, ApplicationContext applicationContext,
                                ServerCodecConfigurer serverCodecConfigurer) {
         super(attr, new WebProperties.Resources(), applicationContext);
         super.setMessageWriters(serverCodecConfigurer.getWriters());
         super.setMessageReaders(serverCodecConfigurer.getReaders());
+        this.attributes = attr;
     }
 
     @Override
     protected RouterFunction<ServerResponse> getRoutingFunction(final ErrorAttributes errorAttributes) {
         return RouterFunctions.route(RequestPredicates.all(), request -> {
-            var props = getErrorAttributes(request, ErrorAttributeOptions.defaults());
+            var error = attributes.getError(request);
+            var type = AppErrorAttributes.errorType(error);
 
-            return ServerResponse.status(Integer.parseInt(props.getOrDefault("status", 500).toString()))
+            return ServerResponse.status(type.status())
                     .contentType(MediaType.APPLICATION_JSON)
-                    .body(BodyInserters.fromValue(props.get("errors")));
+                    .bodyValue(errorBody(AppErrorAttributes.code(error, type), AppErrorAttributes.message(error, type)));
         });
     }
+
+    static byte[] errorBody(String code, String message) {
+        byte[] codeJson = code == null ? NULL : quotedCode(code);
+        byte[] messageJson = message == null ? NULL : quote(message);
+
+        byte[] body = new byte[PREFIX.length + codeJson.length + MESSAGE.length + messageJson.length + SUFFIX.length];
+        int offset = append(body, 0, PREFIX);
+        offset = append(body, offset, codeJson);
+        offset = append(body, offset, MESSAGE);
+        offset = append(body, offset, messageJson);
+        append(body, offset, SUFFIX);
+        return body;
+    }
+
+    private static byte[] quotedCode(String code) {
+        byte[] cached = CODES.get(code);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] quoted = quote(code);
+        if (CODES.size() < MAX_CACHED_CODES) {
+            CODES.putIfAbsent(code, quoted);
+        }
+        return quoted;
+    }
+
+    private static byte[] quote(String value) {
+        byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(value);
+        byte[] quoted = new byte[escaped.length + 2];
+        quoted[0] = '"';
+        System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    private static int append(byte[] target, int offset, byte[] fragment) {
+        System.arraycopy(fragment, 0, target, offset, fragment.length);
+        return offset + fragment.length;
+    }
 }
@@ -10,4 +10,9 @@ public class ApiException extends RuntimeException {
         super(message);
         this.errorCode = errorCode;
     }
+
+    protected ApiException(String message, String errorCode, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+        this.errorCode = errorCode;
+    }
 }
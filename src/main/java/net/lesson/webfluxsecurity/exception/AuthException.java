@@ -1,8 +1,34 @@
 package net.lesson.webfluxsecurity.exception;
 
+import lombok.Getter;
+import net.lesson.webfluxsecurity.enums.AuthFailureReason;
+
+import java.util.EnumMap;
+import java.util.Map;
+
 public class AuthException extends ApiException {
+    private static final Map<AuthFailureReason, AuthException> PREALLOCATED = new EnumMap<>(AuthFailureReason.class);
+
+    static {
+        for (AuthFailureReason reason : AuthFailureReason.values()) {
+            PREALLOCATED.put(reason, new AuthException(reason));
+        }
+    }
+
+    @Getter
+    private final AuthFailureReason reason;
 
     public AuthException(String message, String errorCode) {
         super(message, errorCode);
+        this.reason = null;
+    }
+
+    protected AuthException(AuthFailureReason reason) {
+        super(reason.getMessage(), reason.getErrorCode(), false);
+        this.reason = reason;
+    }
+
+    public static AuthException of(AuthFailureReason reason) {
+        return PREALLOCATED.get(reason);
     }
 }
@@ -0,0 +1,11 @@
+package net.lesson.webfluxsecurity.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceBusyException extends ApiException {
+    public ServiceBusyException(String message) {
+        super(message, "SERVICE_BUSY");
+    }
+}
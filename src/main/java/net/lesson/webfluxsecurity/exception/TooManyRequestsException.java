@@ -0,0 +1,11 @@
+package net.lesson.webfluxsecurity.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends ApiException {
+    public TooManyRequestsException(String message) {
+        super(message, "TOO_MANY_REQUESTS");
+    }
+}
@@ -1,11 +1,36 @@
 package net.lesson.webfluxsecurity.exception;
 
+import net.lesson.webfluxsecurity.enums.AuthFailureReason;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 @ResponseStatus(value = HttpStatus.UNAUTHORIZED)
 public class UnauthorizedException extends AuthException {
+    private static final Map<AuthFailureReason, UnauthorizedException> PREALLOCATED =
+            new EnumMap<>(AuthFailureReason.class);
+
+    static {
+        for (AuthFailureReason reason : AuthFailureReason.values()) {
+            PREALLOCATED.put(reason, new UnauthorizedException(reason));
+        }
+    }
+
     public UnauthorizedException(String message) {
         super(message, "UNAUTHORIZED");
     }
+
+    public UnauthorizedException(String message, String errorCode) {
+        super(message, errorCode);
+    }
+
+    protected UnauthorizedException(AuthFailureReason reason) {
+        super(reason);
+    }
+
+    public static UnauthorizedException of(AuthFailureReason reason) {
+        return PREALLOCATED.get(reason);
+    }
 }
@@ -2,13 +2,14 @@ package net.lesson.webfluxsecurity.model;
 
 import lombok.Builder;
 
-import java.time.LocalDate;
+import java.time.Instant;
 
 @Builder
 public record AuthResponseDTO(
         Long userId,
         String token,
-        LocalDate issuedAt,
-        LocalDate expiresAt
+        String refreshToken,
+        Instant issuedAt,
+        Instant expiresAt
 ) {
 }
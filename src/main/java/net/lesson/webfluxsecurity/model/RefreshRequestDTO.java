@@ -0,0 +1,6 @@
+package net.lesson.webfluxsecurity.model;
+
+public record RefreshRequestDTO(
+        String refreshToken
+) {
+}
@@ -0,0 +1,16 @@
+package net.lesson.webfluxsecurity.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import net.lesson.webfluxsecurity.enums.UserImportStatus;
+
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserImportResultDTO(
+        long line,
+        String username,
+        UserImportStatus status,
+        Long id,
+        String message
+) {
+}
@@ -0,0 +1,19 @@
+package net.lesson.webfluxsecurity.repository;
+
+import net.lesson.webfluxsecurity.domain.RefreshTokenEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+public interface RefreshTokenRepository extends R2dbcRepository<RefreshTokenEntity, Long> {
+    Mono<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("update refresh_tokens set used = true where id = :id and used = false and revoked = false")
+    Mono<Integer> markUsed(Long id);
+
+    @Modifying
+    @Query("update refresh_tokens set revoked = true where family_id = :familyId")
+    Mono<Integer> revokeFamily(String familyId);
+}
@@ -0,0 +1,19 @@
+package net.lesson.webfluxsecurity.repository;
+
+import net.lesson.webfluxsecurity.domain.RevokedTokenEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface RevokedTokenRepository extends R2dbcRepository<RevokedTokenEntity, Long> {
+    @Query("select * from revoked_tokens where expires_at > :now")
+    Flux<RevokedTokenEntity> findUnexpired(LocalDateTime now);
+
+    @Modifying
+    @Query("delete from revoked_tokens where expires_at <= :now")
+    Mono<Integer> deleteExpired(LocalDateTime now);
+}
@@ -0,0 +1,15 @@
+package net.lesson.webfluxsecurity.repository;
+
+import net.lesson.webfluxsecurity.domain.SigningKeyEntity;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface SigningKeyRepository extends R2dbcRepository<SigningKeyEntity, Long> {
+    @Query("select * from signing_keys order by activates_at desc limit :limit")
+    Flux<SigningKeyEntity> findLatest(int limit);
+
+    @Query("select pg_try_advisory_xact_lock(:lockId)")
+    Mono<Boolean> tryTransactionLock(long lockId);
+}
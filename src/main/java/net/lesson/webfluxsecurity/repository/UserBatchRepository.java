@@ -0,0 +1,59 @@
+package net.lesson.webfluxsecurity.repository;
+
+import lombok.RequiredArgsConstructor;
+import net.lesson.webfluxsecurity.domain.UserEntity;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class UserBatchRepository {
+    private static final String INSERT = "insert into users "
+            + "(username, password, role, first_name, last_name, enabled, created_at, updated_at) values ";
+    private static final String ON_CONFLICT = " on conflict (username) do nothing returning id, username";
+
+    private final DatabaseClient client;
+
+    public Flux<UserEntity> insertIgnoringDuplicates(List<UserEntity> users) {
+        if (users.isEmpty()) {
+            return Flux.empty();
+        }
+        StringBuilder sql = new StringBuilder(INSERT);
+        for (int i = 0; i < users.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:username").append(i)
+                    .append(", :password").append(i)
+                    .append(", :role").append(i)
+                    .append(", :firstName").append(i)
+                    .append(", :lastName").append(i)
+                    .append(", :enabled").append(i)
+                    .append(", :createdAt").append(i)
+                    .append(", :updatedAt").append(i)
+                    .append(')');
+        }
+        sql.append(ON_CONFLICT);
+
+        DatabaseClient.GenericExecuteSpec spec = client.sql(sql.toString());
+        for (int i = 0; i < users.size(); i++) {
+            UserEntity user = users.get(i);
+            spec = spec.bind("username" + i, user.getUsername())
+                    .bind("password" + i, user.getPassword())
+                    .bind("role" + i, user.getRole().name())
+                    .bind("firstName" + i, user.getFirstName())
+                    .bind("lastName" + i, user.getLastName())
+                    .bind("enabled" + i, user.isEnabled())
+                    .bind("createdAt" + i, user.getCreatedAt())
+                    .bind("updatedAt" + i, user.getUpdatedAt());
+        }
+        return spec.map((row, metadata) -> UserEntity.builder()
+                        .id(row.get("id", Long.class))
+                        .username(row.get("username", String.class))
+                        .build())
+                .all();
+    }
+}
@@ -0,0 +1,8 @@
+package net.lesson.webfluxsecurity.repository;
+
+import net.lesson.webfluxsecurity.enums.UserRole;
+
+import java.time.LocalDateTime;
+
+public record UserFilter(UserRole role, Boolean enabled, LocalDateTime createdFrom, LocalDateTime createdTo) {
+}
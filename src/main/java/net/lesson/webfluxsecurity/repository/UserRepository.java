@@ -1,9 +1,20 @@
 package net.lesson.webfluxsecurity.repository;
 
 import net.lesson.webfluxsecurity.domain.UserEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 public interface UserRepository extends R2dbcRepository<UserEntity, Long> {
     Mono<UserEntity> findByUsername(String username);
+
+    @Query("select updated_at from users where id = :id")
+    Mono<LocalDateTime> findUpdatedAtById(Long id);
+
+    @Modifying
+    @Query("update users set password = :newPassword where id = :id and password = :oldPassword")
+    Mono<Integer> updatePassword(Long id, String oldPassword, String newPassword);
 }
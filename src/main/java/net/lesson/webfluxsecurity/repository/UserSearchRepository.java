@@ -0,0 +1,37 @@
+package net.lesson.webfluxsecurity.repository;
+
+import lombok.RequiredArgsConstructor;
+import net.lesson.webfluxsecurity.domain.UserEntity;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+@RequiredArgsConstructor
+public class UserSearchRepository {
+    private final R2dbcEntityTemplate template;
+
+    public Flux<UserEntity> findPage(UserFilter filter, long afterId, int limit) {
+        Criteria criteria = Criteria.where("id").greaterThan(afterId);
+        if (filter.role() != null) {
+            criteria = criteria.and("role").is(filter.role().name());
+        }
+        if (filter.enabled() != null) {
+            criteria = criteria.and("enabled").is(filter.enabled());
+        }
+        if (filter.createdFrom() != null) {
+            criteria = criteria.and("createdAt").greaterThanOrEquals(filter.createdFrom());
+        }
+        if (filter.createdTo() != null) {
+            criteria = criteria.and("createdAt").lessThan(filter.createdTo());
+        }
+        return template.select(UserEntity.class)
+                .matching(Query.query(criteria)
+                        .sort(Sort.by("id"))
+                        .limit(limit))
+                .all();
+    }
+}
@@ -0,0 +1,64 @@
+package net.lesson.webfluxsecurity.resource;
+
+import lombok.RequiredArgsConstructor;
+import net.lesson.webfluxsecurity.enums.UserRole;
+import net.lesson.webfluxsecurity.mapper.UserMapper;
+import net.lesson.webfluxsecurity.model.UserDTO;
+import net.lesson.webfluxsecurity.model.UserImportResultDTO;
+import net.lesson.webfluxsecurity.repository.UserFilter;
+import net.lesson.webfluxsecurity.service.UserImportResult;
+import net.lesson.webfluxsecurity.service.UserImportService;
+import net.lesson.webfluxsecurity.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@RequiredArgsConstructor
+class AdminRestController {
+    private final UserImportService importService;
+    private final UserService userService;
+    private final UserMapper mapper;
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping(value = "/users", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<UserDTO> listUsers(@RequestParam(defaultValue = "0") long afterId,
+                                   @RequestParam(required = false) Integer limit,
+                                   @RequestParam(required = false) UserRole role,
+                                   @RequestParam(required = false) Boolean enabled,
+                                   @RequestParam(required = false)
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+                                   @RequestParam(required = false)
+                                   @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo) {
+        return userService.listUsers(new UserFilter(role, enabled, createdFrom, createdTo), afterId, limit)
+                .map(mapper::map);
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping(value = "/users:import",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserImportResultDTO> importUsers(@RequestBody Flux<UserDTO> items) {
+        return importService.importUsers(items.map(mapper::map))
+                .map(this::toResponse);
+    }
+
+    private UserImportResultDTO toResponse(UserImportResult result) {
+        return UserImportResultDTO.builder()
+                .line(result.line())
+                .username(result.username())
+                .status(result.status())
+                .id(result.id())
+                .message(result.message())
+                .build();
+    }
+}
@@ -1,21 +1,30 @@
 package net.lesson.webfluxsecurity.resource;
 
 import lombok.RequiredArgsConstructor;
+import net.lesson.webfluxsecurity.exception.ApiException;
 import net.lesson.webfluxsecurity.mapper.UserMapper;
 import net.lesson.webfluxsecurity.model.AuthRequestDTO;
 import net.lesson.webfluxsecurity.model.AuthResponseDTO;
+import net.lesson.webfluxsecurity.model.RefreshRequestDTO;
 import net.lesson.webfluxsecurity.model.UserDTO;
 import net.lesson.webfluxsecurity.security.CustomPrincipal;
+import net.lesson.webfluxsecurity.security.JwtHandler;
 import net.lesson.webfluxsecurity.security.SecurityService;
+import net.lesson.webfluxsecurity.security.TokenDetails;
 import net.lesson.webfluxsecurity.service.UserService;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -33,21 +42,57 @@ class AuthRestController {
 
     @PostMapping("/login")
     public Mono<AuthResponseDTO> login(@RequestBody AuthRequestDTO request) {
+        if (!StringUtils.hasText(request.username()) || !StringUtils.hasText(request.password())) {
+            return Mono.error(new ApiException("Username and password are required", "INVALID_REQUEST"));
+        }
         return service.authenticate(request.username(), request.password())
-                .flatMap(tokenDetails -> Mono.just(
-                        AuthResponseDTO.builder()
-                                .userId(tokenDetails.userId())
-                                .token(tokenDetails.token())
-                                .issuedAt(tokenDetails.issuedAt())
-                                .expiresAt(tokenDetails.expiresAt())
-                                .build()
-                ));
+                .map(this::toResponse);
+    }
+
+    @PostMapping("/refresh")
+    public Mono<AuthResponseDTO> refresh(@RequestBody RefreshRequestDTO request) {
+        if (!StringUtils.hasText(request.refreshToken())) {
+            return Mono.error(new ApiException("Refresh token is required", "INVALID_REQUEST"));
+        }
+        return service.refresh(request.refreshToken())
+                .map(this::toResponse);
+    }
+
+    @PostMapping("/logout")
+    public Mono<Void> logout(Authentication auth, @RequestBody(required = false) RefreshRequestDTO request) {
+        var verificationResult = (JwtHandler.VerificationResult) auth.getCredentials();
+        return service.logout(verificationResult.claims, request == null ? null : request.refreshToken());
     }
 
     @GetMapping("/info")
-    public Mono<UserDTO> fetchUserInfo(Authentication auth) {
+    public Mono<UserDTO> fetchUserInfo(Authentication auth, ServerWebExchange exchange) {
         CustomPrincipal principal = (CustomPrincipal) auth.getPrincipal();
-        return userService.getUserById(principal.getId())
+        Long id = principal.getId();
+        if (exchange.getRequest().getHeaders().getIfNoneMatch().isEmpty()) {
+            return userService.getUserById(id)
+                    .filter(user -> !exchange.checkNotModified(eTag(id, user.getUpdatedAt())))
+                    .map(mapper::map);
+        }
+        return userService.getUserVersion(id)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .filter(version -> !exchange.checkNotModified(eTag(id, version.orElse(null))))
+                .flatMap(version -> userService.getUserById(id))
                 .map(mapper::map);
     }
+
+    static String eTag(Long id, LocalDateTime version) {
+        long stamp = version == null ? 0 : version.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + version.getNano() / 1_000;
+        return "W/\"" + id + "-" + Long.toHexString(stamp) + "\"";
+    }
+
+    private AuthResponseDTO toResponse(TokenDetails tokenDetails) {
+        return AuthResponseDTO.builder()
+                .userId(tokenDetails.userId())
+                .token(tokenDetails.token())
+                .refreshToken(tokenDetails.refreshToken())
+                .issuedAt(tokenDetails.issuedAt())
+                .expiresAt(tokenDetails.expiresAt())
+                .build();
+    }
 }
@@ -0,0 +1,27 @@
+package net.lesson.webfluxsecurity.resource;
+
+import lombok.RequiredArgsConstructor;
+import net.lesson.webfluxsecurity.security.JwtKeyProvider;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+class JwksRestController {
+    private static final CacheControl JWKS_CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic();
+
+    private final JwtKeyProvider keyProvider;
+
+    @GetMapping("/.well-known/jwks.json")
+    public Mono<ResponseEntity<Map<String, Object>>> jwks() {
+        return Mono.just(ResponseEntity.ok()
+                .cacheControl(JWKS_CACHE_CONTROL)
+                .body(keyProvider.getJwks()));
+    }
+}
@@ -1,8 +1,9 @@
 package net.lesson.webfluxsecurity.security;
 
 import lombok.RequiredArgsConstructor;
-import net.lesson.webfluxsecurity.domain.UserEntity;
+import net.lesson.webfluxsecurity.enums.AuthFailureReason;
 import net.lesson.webfluxsecurity.exception.UnauthorizedException;
+import net.lesson.webfluxsecurity.service.UserAuthState;
 import net.lesson.webfluxsecurity.service.UserService;
 import org.springframework.security.authentication.ReactiveAuthenticationManager;
 import org.springframework.security.core.Authentication;
@@ -12,14 +13,18 @@ import reactor.core.publisher.Mono;
 @Component
 @RequiredArgsConstructor
 public class AuthManager implements ReactiveAuthenticationManager {
+    private static final Mono<UserAuthState> USER_DISABLED =
+            Mono.error(UnauthorizedException.of(AuthFailureReason.USER_DISABLED));
+
     private final UserService service;
+    private final AuthMetrics metrics;
 
     @Override
     public Mono<Authentication> authenticate(Authentication authentication) {
         CustomPrincipal principal = (CustomPrincipal) authentication.getPrincipal();
-        return service.getUserById(principal.getId())
-                .filter(UserEntity::isEnabled)
-                .switchIfEmpty(Mono.error(new UnauthorizedException("User disabled")))
-                .map(user -> authentication);
+        return metrics.timeStage("manager.authenticate", service.getAuthState(principal.getId())
+                .filter(UserAuthState::enabled)
+                .switchIfEmpty(USER_DISABLED)
+                .map(user -> authentication));
     }
 }
@@ -0,0 +1,83 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import net.lesson.webfluxsecurity.exception.ApiException;
+import net.lesson.webfluxsecurity.exception.AuthException;
+import net.lesson.webfluxsecurity.exception.ServiceBusyException;
+import net.lesson.webfluxsecurity.exception.TooManyRequestsException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+    private static final String STAGE_TIMER = "auth.pipeline";
+    private static final String QUERY_TIMER = "auth.db.query";
+    private static final Map<String, String> outcomesByErrorCode = Map.of(
+            "USER_ACCOUNT_DISABLED", "disabled",
+            "USER_ACCOUNT_DISABLED or INVALID_PASSWORD", "bad-credentials",
+            "INVALID_USERNAME", "bad-credentials",
+            "TOKEN_REVOKED", "revoked",
+            "INVALID_REFRESH_TOKEN", "bad-refresh-token",
+            "REFRESH_TOKEN_REUSED", "refresh-token-reused");
+
+    private final MeterRegistry registry;
+
+    public <T> Mono<T> timeStage(String stage, Mono<T> source) {
+        return timed(STAGE_TIMER, Tags.of("stage", stage), source);
+    }
+
+    public <T> Mono<T> timeQuery(String query, Mono<T> source) {
+        return timed(QUERY_TIMER, Tags.of("query", query), source);
+    }
+
+    private <T> Mono<T> timed(String name, Tags tags, Mono<T> source) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(registry);
+            return source
+                    .doOnSuccess(value -> stop(sample, name, tags, value == null ? "empty" : "ok"))
+                    .doOnError(ex -> stop(sample, name, tags, outcome(ex)))
+                    .doOnCancel(() -> stop(sample, name, tags, "cancelled"));
+        });
+    }
+
+    private void stop(Timer.Sample sample, String name, Tags tags, String outcome) {
+        sample.stop(Timer.builder(name)
+                .tags(tags)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    static String outcome(Throwable ex) {
+        if (ex instanceof ExpiredJwtException) {
+            return "expired";
+        }
+        if (ex instanceof SignatureException) {
+            return "bad-signature";
+        }
+        if (ex instanceof JwtException) {
+            return "malformed";
+        }
+        if (ex instanceof TooManyRequestsException) {
+            return "throttled";
+        }
+        if (ex instanceof ServiceBusyException) {
+            return "busy";
+        }
+        if (ex instanceof AuthException authException && authException.getReason() != null) {
+            return authException.getReason().getOutcome();
+        }
+        if (ex instanceof ApiException apiException) {
+            return outcomesByErrorCode.getOrDefault(apiException.getErrorCode(), "rejected");
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,36 @@
+package net.lesson.webfluxsecurity.security;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+final class BearerAuthentication implements Authentication {
+    private final CustomPrincipal principal;
+    private final transient JwtHandler.VerificationResult credentials;
+    private final List<GrantedAuthority> authorities;
+
+    @Override
+    public Object getDetails() {
+        return null;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return true;
+    }
+
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) {
+        throw new IllegalArgumentException("Bearer authentication is immutable");
+    }
+
+    @Override
+    public String getName() {
+        return principal.getName();
+    }
+}
@@ -7,26 +7,45 @@ import org.springframework.security.web.server.authentication.ServerAuthenticati
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.function.Function;
-
 @RequiredArgsConstructor
 public class BearerTokenServerAuthConverter implements ServerAuthenticationConverter {
-    private final JwtHandler handler;
+    static final int MAX_HEADER_LENGTH = 8192;
     private static final String BEARER_PREFIX = "Bearer ";
-    private static final Function<String, Mono<String>> getBearerValue =
-            authValue -> Mono.justOrEmpty(authValue.substring(BEARER_PREFIX.length()));
+
+    private final JwtHandler handler;
+    private final AuthMetrics metrics;
 
     @Override
     public Mono<Authentication> convert(ServerWebExchange exchange) {
-        return extractHeader(exchange)
-                .flatMap(getBearerValue)
-                .flatMap(handler::check)
-                .flatMap(UserAuthBearer::create);
+        String token = bearerToken(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        if (token == null) {
+            return Mono.empty();
+        }
+        return metrics.timeStage("bearer.convert",
+                metrics.timeStage("jwt.check", Mono.defer(() -> handler.check(token)))
+                        .map(JwtHandler.VerificationResult::authentication));
+    }
+
+    static String bearerToken(String header) {
+        if (header == null
+                || header.length() <= BEARER_PREFIX.length()
+                || header.length() > MAX_HEADER_LENGTH
+                || !header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return null;
+        }
+        int dots = 0;
+        for (int i = BEARER_PREFIX.length(); i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (c == '.') {
+                dots++;
+            } else if (!isBase64UrlChar(c)) {
+                return null;
+            }
+        }
+        return dots == 2 ? header.substring(BEARER_PREFIX.length()) : null;
     }
 
-    private Mono<String> extractHeader(ServerWebExchange exchange) {
-        return Mono.justOrEmpty(exchange.getRequest()
-                .getHeaders()
-                .getFirst(HttpHeaders.AUTHORIZATION));
+    private static boolean isBase64UrlChar(char c) {
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
     }
 }
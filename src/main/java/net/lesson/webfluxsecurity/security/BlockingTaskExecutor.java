@@ -0,0 +1,21 @@
+package net.lesson.webfluxsecurity.security;
+
+import java.util.concurrent.ExecutorService;
+
+public interface BlockingTaskExecutor extends ExecutorService {
+    int pending();
+
+    boolean hasIdleWorker();
+
+    static BlockingTaskExecutor create(Mode mode, String threadNamePrefix, int concurrency, int queueCapacity) {
+        return switch (mode) {
+            case PLATFORM -> new PlatformTaskExecutor(threadNamePrefix, concurrency, queueCapacity);
+            case VIRTUAL -> new VirtualThreadTaskExecutor(threadNamePrefix, concurrency, queueCapacity);
+        };
+    }
+
+    enum Mode {
+        PLATFORM,
+        VIRTUAL
+    }
+}
@@ -1,15 +1,11 @@
 package net.lesson.webfluxsecurity.security;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
 import java.security.Principal;
 
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
+@Value
 public class CustomPrincipal implements Principal {
-    private Long id;
-    private String name;
+    Long id;
+    String name;
 }
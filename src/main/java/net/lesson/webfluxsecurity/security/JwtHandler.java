@@ -1,50 +1,169 @@
 package net.lesson.webfluxsecurity.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolver;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import net.lesson.webfluxsecurity.enums.AuthFailureReason;
 import net.lesson.webfluxsecurity.exception.UnauthorizedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDate;
-import java.time.ZoneId;
-import java.util.Base64;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
+@Component
 public class JwtHandler {
-    private final String secret;
+    private static final String TOKEN_DIGEST = "SHA-256";
+    private static final long UNBOUNDED_SKEW_SECONDS = Long.MAX_VALUE / 2_000;
+    private static final ThreadLocal<MessageDigest> digest = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(TOKEN_DIGEST);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    });
+
+    private final SigningKeyResolver keyResolver;
+    private final TokenRevocationService revocations;
+    private final Clock clock;
+    private final io.jsonwebtoken.Clock jwtClock;
+    private final long clockSkewMillis;
+    private final Cache<ByteBuffer, VerificationResult> verified;
 
-    public JwtHandler(String secret) {
-        this.secret = secret;
+    public JwtHandler(JwtKeyProvider keyProvider, TokenRevocationService revocations, Clock clock,
+                      @Value("${jwt.clockSkew:30}") long clockSkew,
+                      @Value("${jwt.verificationCache.maxSize:10000}") long cacheMaxSize) {
+        this.keyResolver = new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return keyProvider.resolveVerificationKey(header.getKeyId(), header.getAlgorithm());
+            }
+        };
+        this.revocations = revocations;
+        this.clock = clock;
+        this.jwtClock = () -> Date.from(clock.instant());
+        this.clockSkewMillis = TimeUnit.SECONDS.toMillis(clockSkew);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiration(clock))
+                .build();
     }
 
     public Mono<VerificationResult> check(String accessToken) {
-        return Mono.just(verify(accessToken))
-                .onErrorResume(ex -> Mono.error(new UnauthorizedException(ex.getMessage())));
+        ByteBuffer key = tokenKey(accessToken);
+        VerificationResult cached = verified.getIfPresent(key);
+        if (cached != null) {
+            return notRevoked(cached);
+        }
+        VerificationResult result;
+        try {
+            result = verify(accessToken);
+        } catch (UnauthorizedException ex) {
+            return Mono.error(ex);
+        } catch (RuntimeException ex) {
+            return Mono.error(UnauthorizedException.of(reason(ex)));
+        }
+        verified.put(key, result);
+        return notRevoked(result);
+    }
+
+    private Mono<VerificationResult> notRevoked(VerificationResult result) {
+        if (revocations.isRevoked(result.claims.getId())) {
+            return Mono.error(UnauthorizedException.of(AuthFailureReason.TOKEN_REVOKED));
+        }
+        return Mono.just(result);
+    }
+
+    private static AuthFailureReason reason(RuntimeException ex) {
+        if (ex instanceof ExpiredJwtException) {
+            return AuthFailureReason.TOKEN_EXPIRED;
+        }
+        if (ex instanceof SignatureException) {
+            return AuthFailureReason.TOKEN_BAD_SIGNATURE;
+        }
+        return AuthFailureReason.TOKEN_MALFORMED;
     }
 
     private Claims getClaimsFromToken(String token) {
         return Jwts.parser()
-                .setSigningKey(Base64.getEncoder().encodeToString(secret.getBytes()))
+                .setClock(jwtClock)
+                .setAllowedClockSkewSeconds(UNBOUNDED_SKEW_SECONDS)
+                .setSigningKeyResolver(keyResolver)
                 .parseClaimsJws(token)
                 .getBody();
     }
 
-    private VerificationResult verify(String token) {
+    VerificationResult verify(String token) {
         Claims claims = getClaimsFromToken(token);
-        final LocalDate expirationDate = claims.getExpiration().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-
-        if (expirationDate.isBefore(LocalDate.now())) {
-            throw new RuntimeException("Token expired");
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            throw UnauthorizedException.of(AuthFailureReason.TOKEN_NO_EXPIRATION);
+        }
+        long now = clock.millis();
+        if (now - clockSkewMillis > expiration.getTime()) {
+            throw UnauthorizedException.of(AuthFailureReason.TOKEN_EXPIRED);
+        }
+        Date notBefore = claims.getNotBefore();
+        if (notBefore != null && now + clockSkewMillis < notBefore.getTime()) {
+            throw UnauthorizedException.of(AuthFailureReason.TOKEN_NOT_YET_VALID);
         }
         return new VerificationResult(claims, token);
     }
 
+    private static ByteBuffer tokenKey(String token) {
+        return ByteBuffer.wrap(digest.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
     public static class VerificationResult {
-        public Claims claims;
-        public String token;
+        public final Claims claims;
+        public final String token;
+        private volatile Authentication authentication;
 
         public VerificationResult(Claims claims, String token) {
             this.claims = claims;
             this.token = token;
         }
+
+        Authentication authentication() {
+            Authentication current = authentication;
+            if (current == null) {
+                current = UserAuthBearer.create(this);
+                authentication = current;
+            }
+            return current;
+        }
+    }
+
+    private record UntilTokenExpiration(Clock clock) implements Expiry<ByteBuffer, VerificationResult> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerificationResult value, long currentTime) {
+            long millisLeft = value.claims.getExpiration().getTime() - clock.millis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerificationResult value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerificationResult value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,79 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+public class JwtKeyProvider {
+    private final JwtSigningKey bootstrapKey;
+    private volatile KeyRing ring;
+
+    public JwtKeyProvider(String secret) {
+        this(JwtSigningKey.hmac(SignatureAlgorithm.HS256, secret.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public JwtKeyProvider(JwtSigningKey bootstrapKey) {
+        this.bootstrapKey = bootstrapKey;
+        this.ring = KeyRing.of(bootstrapKey, List.of());
+    }
+
+    public JwtSigningKey getBootstrapKey() {
+        return bootstrapKey;
+    }
+
+    public JwtSigningKey getActiveKey() {
+        return ring.active();
+    }
+
+    public void rotate(JwtSigningKey activeKey, Collection<JwtSigningKey> verificationKeys) {
+        KeyRing previous = ring;
+        ring = KeyRing.of(activeKey, verificationKeys);
+        if (!previous.active().kid().equals(activeKey.kid())) {
+            log.info("IN rotate - active signing key changed from {} to {}", previous.active().kid(), activeKey.kid());
+        }
+    }
+
+    public Key resolveVerificationKey(String kid, String algorithm) {
+        KeyRing current = ring;
+        JwtSigningKey key = kid == null ? bootstrapKey : current.keysById().get(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown signing key id: " + kid);
+        }
+        if (!key.algorithm().getValue().equals(algorithm)) {
+            throw new SignatureException("Signing algorithm " + algorithm + " does not match key " + key.kid());
+        }
+        return key.verificationKey();
+    }
+
+    public Map<String, Object> getJwks() {
+        return ring.jwks();
+    }
+
+    private record KeyRing(
+            JwtSigningKey active,
+            Map<String, JwtSigningKey> keysById,
+            Map<String, Object> jwks
+    ) {
+        static KeyRing of(JwtSigningKey active, Collection<JwtSigningKey> verificationKeys) {
+            var keysById = new HashMap<String, JwtSigningKey>();
+            keysById.put(active.kid(), active);
+            verificationKeys.forEach(key -> keysById.putIfAbsent(key.kid(), key));
+
+            var published = new ArrayList<Map<String, Object>>();
+            keysById.values().stream()
+                    .filter(JwtSigningKey::isPublishable)
+                    .forEach(key -> published.add(key.toJwk()));
+
+            return new KeyRing(active, Map.copyOf(keysById), Map.of("keys", List.copyOf(published)));
+        }
+    }
+}
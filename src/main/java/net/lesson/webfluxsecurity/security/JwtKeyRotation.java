@@ -0,0 +1,116 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.lesson.webfluxsecurity.domain.SigningKeyEntity;
+import net.lesson.webfluxsecurity.repository.SigningKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "jwt.rotation.enabled", havingValue = "true")
+public class JwtKeyRotation {
+    private static final long ROTATION_LOCK_ID = 0x6a776b726f74L;
+
+    private final JwtKeyProvider keyProvider;
+    private final SigningKeyRepository repository;
+    private final SigningKeyCipher cipher;
+    private final TransactionalOperator transactionalOperator;
+    private final Clock clock;
+    @Value("${jwt.rotation.period:86400}")
+    private long period;
+    @Value("${jwt.rotation.activationDelay:600}")
+    private long activationDelay;
+    @Value("${jwt.rotation.retainedKeys:3}")
+    private int retainedKeys;
+
+    @Scheduled(fixedDelayString = "${jwt.rotation.checkInterval:60}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        refreshKeys().subscribe(null, ex -> log.error("IN refresh - signing key refresh failed: {}", ex.getMessage()));
+    }
+
+    Mono<Void> refreshKeys() {
+        return latestKeys()
+                .flatMap(keys -> shouldRotate(keys) ? rotate() : Mono.just(keys))
+                .doOnNext(this::install)
+                .then();
+    }
+
+    private Mono<List<SigningKeyEntity>> rotate() {
+        return repository.tryTransactionLock(ROTATION_LOCK_ID)
+                .filter(Boolean::booleanValue)
+                .flatMap(locked -> latestKeys())
+                .flatMap(keys -> shouldRotate(keys)
+                        ? repository.save(nextKey(keys)).then(latestKeys())
+                        : Mono.just(keys))
+                .as(transactionalOperator::transactional)
+                .switchIfEmpty(Mono.defer(this::latestKeys));
+    }
+
+    private Mono<List<SigningKeyEntity>> latestKeys() {
+        return repository.findLatest(retainedKeys + 2).collectList();
+    }
+
+    private boolean shouldRotate(List<SigningKeyEntity> keys) {
+        if (keys.isEmpty()) {
+            return true;
+        }
+        LocalDateTime publishAt = keys.get(0).getActivatesAt().plusSeconds(period - activationDelay);
+        return !publishAt.isAfter(LocalDateTime.now(clock));
+    }
+
+    private SigningKeyEntity nextKey(List<SigningKeyEntity> keys) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime activatesAt = now.plusSeconds(activationDelay);
+        if (!keys.isEmpty() && keys.get(0).getActivatesAt().plusSeconds(period).isAfter(activatesAt)) {
+            activatesAt = keys.get(0).getActivatesAt().plusSeconds(period);
+        }
+
+        JwtSigningKey key = JwtSigningKey.generate(keyProvider.getBootstrapKey().algorithm());
+        log.info("IN nextKey - publishing signing key {} active from {}", key.kid(), activatesAt);
+        return SigningKeyEntity.builder()
+                .kid(key.kid())
+                .algorithm(key.algorithm().getValue())
+                .privateKey(cipher.encrypt(key.kid(), key.encodedPrivateKey()))
+                .publicKey(key.encodedPublicKey())
+                .activatesAt(activatesAt)
+                .createdAt(now)
+                .build();
+    }
+
+    private void install(List<SigningKeyEntity> keys) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        JwtSigningKey active = null;
+        List<JwtSigningKey> verificationKeys = new ArrayList<>();
+
+        for (SigningKeyEntity entity : keys) {
+            JwtSigningKey key = JwtSigningKey.decode(SignatureAlgorithm.forName(entity.getAlgorithm()),
+                    cipher.decrypt(entity.getKid(), entity.getPrivateKey()), entity.getPublicKey());
+            if (active == null && !entity.getActivatesAt().isAfter(now)) {
+                active = key;
+            } else {
+                verificationKeys.add(key);
+            }
+        }
+
+        if (active == null) {
+            active = keyProvider.getBootstrapKey();
+        } else {
+            verificationKeys.add(keyProvider.getBootstrapKey());
+        }
+        keyProvider.rotate(active, verificationKeys);
+    }
+}
@@ -0,0 +1,140 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public record JwtSigningKey(
+        String kid,
+        SignatureAlgorithm algorithm,
+        Key signingKey,
+        Key verificationKey
+) {
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    public static JwtSigningKey hmac(SignatureAlgorithm algorithm, byte[] secret) {
+        var key = new SecretKeySpec(secret, algorithm.getJcaName());
+        return new JwtSigningKey(kidOf(secret), algorithm, key, key);
+    }
+
+    public static JwtSigningKey ellipticCurve(SignatureAlgorithm algorithm, KeyPair keyPair) {
+        return new JwtSigningKey(kidOf(keyPair.getPublic().getEncoded()), algorithm,
+                keyPair.getPrivate(), keyPair.getPublic());
+    }
+
+    public static JwtSigningKey generate(SignatureAlgorithm algorithm) {
+        if (algorithm.isHmac()) {
+            byte[] secret = new byte[hmacLength(algorithm)];
+            RANDOM.nextBytes(secret);
+            return hmac(algorithm, secret);
+        }
+        return generateEllipticCurve(algorithm);
+    }
+
+    public static JwtSigningKey decode(SignatureAlgorithm algorithm, String privateKey, String publicKey) {
+        if (algorithm.isHmac()) {
+            return hmac(algorithm, Base64.getDecoder().decode(privateKey));
+        }
+        try {
+            KeyFactory factory = KeyFactory.getInstance("EC");
+            return ellipticCurve(algorithm, new KeyPair(
+                    factory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKey))),
+                    factory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKey)))
+            ));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Invalid " + algorithm + " key pair", ex);
+        }
+    }
+
+    public static JwtSigningKey generateEllipticCurve(SignatureAlgorithm algorithm) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec(curveOf(algorithm).jcaName()));
+            return ellipticCurve(algorithm, generator.generateKeyPair());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public String encodedPrivateKey() {
+        return Base64.getEncoder().encodeToString(signingKey.getEncoded());
+    }
+
+    public String encodedPublicKey() {
+        return isPublishable() ? Base64.getEncoder().encodeToString(verificationKey.getEncoded()) : null;
+    }
+
+    public boolean isPublishable() {
+        return verificationKey instanceof ECPublicKey;
+    }
+
+    public Map<String, Object> toJwk() {
+        var publicKey = (ECPublicKey) verificationKey;
+        var curve = curveOf(algorithm);
+        int size = (publicKey.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+
+        var jwk = new LinkedHashMap<String, Object>();
+        jwk.put("kty", "EC");
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        jwk.put("kid", kid);
+        jwk.put("crv", curve.jwkName());
+        jwk.put("x", coordinate(publicKey.getW().getAffineX(), size));
+        jwk.put("y", coordinate(publicKey.getW().getAffineY(), size));
+        return jwk;
+    }
+
+    private static String kidOf(byte[] material) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(material);
+            return BASE64_URL.encodeToString(Arrays.copyOf(digest, 9));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String coordinate(BigInteger value, int size) {
+        byte[] bytes = value.toByteArray();
+        byte[] padded = new byte[size];
+        int length = Math.min(bytes.length, size);
+        System.arraycopy(bytes, bytes.length - length, padded, size - length, length);
+        return BASE64_URL.encodeToString(padded);
+    }
+
+    private static int hmacLength(SignatureAlgorithm algorithm) {
+        return switch (algorithm) {
+            case HS384 -> 48;
+            case HS512 -> 64;
+            default -> 32;
+        };
+    }
+
+    private static Curve curveOf(SignatureAlgorithm algorithm) {
+        return switch (algorithm) {
+            case ES256 -> new Curve("secp256r1", "P-256");
+            case ES384 -> new Curve("secp384r1", "P-384");
+            case ES512 -> new Curve("secp521r1", "P-521");
+            default -> throw new IllegalArgumentException("Not an elliptic curve algorithm: " + algorithm);
+        };
+    }
+
+    private record Curve(String jcaName, String jwkName) {
+    }
+}
@@ -0,0 +1,82 @@
+package net.lesson.webfluxsecurity.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class LoginRateLimiter {
+    private final Buckets byIp;
+    private final Buckets byUsername;
+
+    public LoginRateLimiter(MeterRegistry registry, Clock clock,
+                            @Value("${auth.throttle.maxKeys:100000}") long maxKeys,
+                            @Value("${auth.throttle.idleTimeout:600}") long idleTimeout,
+                            @Value("${auth.throttle.ip.capacity:20}") long ipCapacity,
+                            @Value("${auth.throttle.ip.refillPeriod:6}") long ipRefillPeriod,
+                            @Value("${auth.throttle.username.capacity:5}") long usernameCapacity,
+                            @Value("${auth.throttle.username.refillPeriod:60}") long usernameRefillPeriod) {
+        this.byIp = new Buckets(clock, maxKeys, idleTimeout, ipCapacity, ipRefillPeriod,
+                throttledCounter(registry, "ip"));
+        this.byUsername = new Buckets(clock, maxKeys, idleTimeout, usernameCapacity, usernameRefillPeriod,
+                throttledCounter(registry, "username"));
+    }
+
+    public boolean tryAcquireForIp(String ip) {
+        return byIp.tryAcquire(ip);
+    }
+
+    public boolean tryAcquireForUsername(String username) {
+        return byUsername.tryAcquire(username);
+    }
+
+    private static Counter throttledCounter(MeterRegistry registry, String key) {
+        return Counter.builder("auth.login.throttled")
+                .tag("key", key)
+                .register(registry);
+    }
+
+    private static final class Buckets {
+        private final Clock clock;
+        private final long emissionInterval;
+        private final long burstTolerance;
+        private final Counter throttled;
+        private final Cache<String, AtomicLong> theoreticalArrivals;
+
+        private Buckets(Clock clock, long maxKeys, long idleTimeout, long capacity, long refillPeriod,
+                        Counter throttled) {
+            this.clock = clock;
+            this.emissionInterval = TimeUnit.SECONDS.toMillis(refillPeriod);
+            this.burstTolerance = emissionInterval * (capacity - 1);
+            this.throttled = throttled;
+            this.theoreticalArrivals = Caffeine.newBuilder()
+                    .maximumSize(maxKeys)
+                    .expireAfterAccess(Math.max(TimeUnit.SECONDS.toMillis(idleTimeout), emissionInterval * capacity),
+                            TimeUnit.MILLISECONDS)
+                    .build();
+        }
+
+        private boolean tryAcquire(String key) {
+            AtomicLong arrival = theoreticalArrivals.get(key, k -> new AtomicLong());
+            long now = clock.millis();
+            while (true) {
+                long current = arrival.get();
+                long start = Math.max(current, now);
+                if (start - now > burstTolerance) {
+                    throttled.increment();
+                    return false;
+                }
+                if (arrival.compareAndSet(current, start + emissionInterval)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
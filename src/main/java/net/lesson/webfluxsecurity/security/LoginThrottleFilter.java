@@ -0,0 +1,155 @@
+package net.lesson.webfluxsecurity.security;
+
+import net.lesson.webfluxsecurity.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LoginThrottleFilter implements WebFilter {
+    private static final String LOGIN_PATH = "/api/v1/auth/login";
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final LoginRateLimiter rateLimiter;
+    private final List<TrustedProxy> trustedProxies;
+
+    public LoginThrottleFilter(LoginRateLimiter rateLimiter,
+                               @Value("${auth.throttle.trustedProxies:}") List<String> trustedProxies) {
+        this.rateLimiter = rateLimiter;
+        this.trustedProxies = trustedProxies.stream()
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .map(TrustedProxy::parse)
+                .toList();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!HttpMethod.POST.equals(request.getMethod()) || !LOGIN_PATH.equals(request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+        if (!rateLimiter.tryAcquireForIp(clientIp(request))) {
+            return Mono.error(new TooManyRequestsException("Too many login attempts"));
+        }
+        return chain.filter(exchange);
+    }
+
+    String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        String ip = remoteAddress == null ? "" : remoteAddress.getHostString();
+        if (!isTrustedProxy(ip)) {
+            return ip;
+        }
+        List<String> hops = forwardedHops(request);
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            ip = hops.get(i);
+            if (!isTrustedProxy(ip)) {
+                return ip;
+            }
+        }
+        return ip;
+    }
+
+    private boolean isTrustedProxy(String ip) {
+        if (trustedProxies.isEmpty()) {
+            return false;
+        }
+        InetAddress address = parseAddress(ip);
+        if (address == null) {
+            return false;
+        }
+        for (TrustedProxy proxy : trustedProxies) {
+            if (proxy.matches(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static InetAddress parseAddress(String value) {
+        if (!isIpLiteral(value)) {
+            return null;
+        }
+        try {
+            return InetAddress.getByName(value);
+        } catch (UnknownHostException ex) {
+            return null;
+        }
+    }
+
+    private static List<String> forwardedHops(ServerHttpRequest request) {
+        List<String> hops = new ArrayList<>();
+        for (String header : request.getHeaders().getOrEmpty(FORWARDED_FOR)) {
+            for (String hop : header.split(",")) {
+                String trimmed = hop.trim();
+                if (!trimmed.isEmpty()) {
+                    hops.add(trimmed);
+                }
+            }
+        }
+        return hops;
+    }
+
+    private static boolean isIpLiteral(String value) {
+        if (value.isEmpty() || value.indexOf('.') < 0 && value.indexOf(':') < 0) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (Character.digit(c, 16) < 0 && c != '.' && c != ':') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record TrustedProxy(byte[] network, int prefixLength) {
+        static TrustedProxy parse(String proxy) {
+            int slash = proxy.indexOf('/');
+            InetAddress address = parseAddress(slash < 0 ? proxy : proxy.substring(0, slash));
+            if (address == null) {
+                throw new IllegalArgumentException("Invalid auth.throttle.trustedProxies entry: " + proxy);
+            }
+            byte[] network = address.getAddress();
+            int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(proxy.substring(slash + 1));
+            if (prefixLength < 0 || prefixLength > network.length * 8) {
+                throw new IllegalArgumentException("Invalid auth.throttle.trustedProxies entry: " + proxy);
+            }
+            return new TrustedProxy(network, prefixLength);
+        }
+
+        boolean matches(InetAddress address) {
+            byte[] candidate = address.getAddress();
+            if (candidate.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (candidate[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (candidate[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+}
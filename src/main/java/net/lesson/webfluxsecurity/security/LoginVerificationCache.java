@@ -0,0 +1,64 @@
+package net.lesson.webfluxsecurity.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.lesson.webfluxsecurity.service.UserAuthState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+@Component
+public class LoginVerificationCache {
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> digest;
+    private final AsyncCache<ByteBuffer, UserAuthState> verified;
+
+    public LoginVerificationCache(MeterRegistry registry,
+                                  @Value("${auth.cache.login.maxSize:10000}") long maxSize,
+                                  @Value("${auth.cache.login.ttl:10}") long ttl) {
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        SecretKeySpec digestKey = new SecretKeySpec(keyBytes, DIGEST_ALGORITHM);
+        this.digest = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+                mac.init(digestKey);
+                return mac;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(registry, verified.synchronous(), "verifiedLogin");
+    }
+
+    public Mono<UserAuthState> get(String username, String password, Supplier<Mono<UserAuthState>> verification) {
+        return Mono.defer(() -> Mono.fromFuture(verified.get(loginKey(username, password),
+                (key, executor) -> verification.get().toFuture()), true));
+    }
+
+    private ByteBuffer loginKey(String username, String password) {
+        byte[] name = username.getBytes(StandardCharsets.UTF_8);
+        Mac mac = digest.get();
+        mac.update(ByteBuffer.allocate(Integer.BYTES).putInt(name.length).array());
+        mac.update(name);
+        return ByteBuffer.wrap(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+    }
+}
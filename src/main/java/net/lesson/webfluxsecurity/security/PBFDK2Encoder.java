@@ -6,38 +6,152 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 
 @Component
 class PBFDK2Encoder implements PasswordEncoder {
-    @Value("${jwt.password.encoder.secret}")
-    private String secret;
-    @Value("${jwt.password.encoder.iteration}")
-    private Integer iteration;
-    @Value("${jwt.password.encoder.keyLength}")
-    private Integer keyLength;
-
     private static final String SECRET_KEY = "PBKDF2WithHmacSHA512";
+    private static final String PREFIX = "{pbkdf2}";
+    private static final String SEPARATOR = "$";
+    private static final int SALT_LENGTH = 16;
+    private static final int MAX_POOLED_FACTORIES = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final Queue<SecretKeyFactory> keyFactories = new ArrayBlockingQueue<>(MAX_POOLED_FACTORIES);
+
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] legacySalt;
+    private final Integer iteration;
+    private final Integer keyLength;
+    private final Integer legacyIteration;
+
+    PBFDK2Encoder(@Value("${jwt.password.encoder.secret}") String secret,
+                  @Value("${jwt.password.encoder.iteration}") Integer iteration,
+                  @Value("${jwt.password.encoder.keyLength}") Integer keyLength,
+                  @Value("${jwt.password.encoder.legacyIteration:64}") Integer legacyIteration) {
+        this.legacySalt = secret.getBytes();
+        this.iteration = iteration;
+        this.keyLength = keyLength;
+        this.legacyIteration = legacyIteration;
+    }
 
     @Override
     public String encode(CharSequence rawPassword) {
+        byte[] salt = new byte[SALT_LENGTH];
+        random.nextBytes(salt);
+        byte[] hash = derive(rawPassword, salt, iteration, keyLength);
+
+        return PREFIX + iteration + SEPARATOR
+                + Base64.getEncoder().encodeToString(salt) + SEPARATOR
+                + Base64.getEncoder().encodeToString(hash);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        if (!encodedPassword.startsWith(PREFIX)) {
+            byte[] expected = decode(encodedPassword);
+            return expected != null
+                    && MessageDigest.isEqual(derive(rawPassword, legacySalt, legacyIteration, keyLength), expected);
+        }
+        Encoded encoded = Encoded.parse(encodedPassword);
+        if (encoded == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                derive(rawPassword, encoded.salt(), encoded.iterations(), encoded.hash().length * 8),
+                encoded.hash());
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        Encoded encoded = encodedPassword == null ? null : Encoded.parse(encodedPassword);
+        return encoded == null
+                || encoded.iterations() != iteration
+                || encoded.hash().length * 8 != keyLength;
+    }
+
+    String legacyEncode(CharSequence rawPassword) {
+        return Base64.getEncoder()
+                .encodeToString(derive(rawPassword, legacySalt, legacyIteration, keyLength));
+    }
+
+    private static byte[] derive(CharSequence rawPassword, byte[] salt, int iterations, int keyLength) {
+        char[] password = toChars(rawPassword);
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, keyLength);
+        SecretKeyFactory factory = borrowKeyFactory();
         try {
-            byte[] result = SecretKeyFactory.getInstance(SECRET_KEY)
-                    .generateSecret(
-                            new PBEKeySpec(rawPassword.toString().toCharArray(), secret.getBytes(), iteration, keyLength)
-                    )
+            return factory
+                    .generateSecret(spec)
                     .getEncoded();
-            return Base64.getEncoder()
-                    .encodeToString(result);
-        } catch (NoSuchAlgorithmException | InvalidKeySpecException ex) {
+        } catch (InvalidKeySpecException ex) {
             throw new RuntimeException(ex);
+        } finally {
+            keyFactories.offer(factory);
+            spec.clearPassword();
+            Arrays.fill(password, '\0');
         }
     }
 
-    @Override
-    public boolean matches(CharSequence rawPassword, String encodedPassword) {
-        return encode(rawPassword).equals(encodedPassword);
+    private static SecretKeyFactory borrowKeyFactory() {
+        SecretKeyFactory factory = keyFactories.poll();
+        if (factory != null) {
+            return factory;
+        }
+        try {
+            return SecretKeyFactory.getInstance(SECRET_KEY);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static char[] toChars(CharSequence rawPassword) {
+        if (rawPassword instanceof String string) {
+            return string.toCharArray();
+        }
+        char[] chars = new char[rawPassword.length()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = rawPassword.charAt(i);
+        }
+        return chars;
+    }
+
+    private static byte[] decode(String value) {
+        try {
+            return Base64.getDecoder().decode(value);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private record Encoded(int iterations, byte[] salt, byte[] hash) {
+        static Encoded parse(String encodedPassword) {
+            if (!encodedPassword.startsWith(PREFIX)) {
+                return null;
+            }
+            int saltStart = encodedPassword.indexOf(SEPARATOR, PREFIX.length()) + 1;
+            int hashStart = saltStart == 0 ? 0 : encodedPassword.indexOf(SEPARATOR, saltStart) + 1;
+            if (hashStart == 0 || encodedPassword.indexOf(SEPARATOR, hashStart) >= 0) {
+                return null;
+            }
+            try {
+                int iterations = Integer.parseInt(encodedPassword, PREFIX.length(), saltStart - 1, 10);
+                byte[] salt = Base64.getDecoder().decode(encodedPassword.substring(saltStart, hashStart - 1));
+                byte[] hash = Base64.getDecoder().decode(encodedPassword.substring(hashStart));
+                if (iterations <= 0 || salt.length == 0 || hash.length == 0) {
+                    return null;
+                }
+                return new Encoded(iterations, salt, hash);
+            } catch (IllegalArgumentException ex) {
+                return null;
+            }
+        }
     }
 }
@@ -0,0 +1,24 @@
+package net.lesson.webfluxsecurity.security;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+final class PlatformTaskExecutor extends ThreadPoolExecutor implements BlockingTaskExecutor {
+    PlatformTaskExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        super(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory(threadNamePrefix), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public int pending() {
+        return getQueue().size();
+    }
+
+    @Override
+    public boolean hasIdleWorker() {
+        return getQueue().isEmpty() && getActiveCount() < getMaximumPoolSize();
+    }
+}
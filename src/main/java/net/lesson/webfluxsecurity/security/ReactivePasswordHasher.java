@@ -0,0 +1,121 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.lesson.webfluxsecurity.exception.ServiceBusyException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Component
+public class ReactivePasswordHasher implements DisposableBean {
+    private final PasswordEncoder encoder;
+    private final BlockingTaskExecutor executor;
+    private final Timer waitTimer;
+    private final Timer hashTimer;
+    private final Counter rejected;
+    private final Disposable.Composite upgrades = Disposables.composite();
+    private final AtomicInteger upgradesInFlight = new AtomicInteger();
+    private final int maxBackgroundUpgrades;
+
+    @Autowired
+    public ReactivePasswordHasher(PasswordEncoder encoder, MeterRegistry registry,
+                                  @Value("${jwt.password.hasher.mode:platform}") BlockingTaskExecutor.Mode mode,
+                                  @Value("${jwt.password.hasher.poolSize:4}") int poolSize,
+                                  @Value("${jwt.password.hasher.queueCapacity:64}") int queueCapacity,
+                                  @Value("${jwt.password.hasher.maxBackgroundUpgrades:1}") int maxBackgroundUpgrades) {
+        this(encoder, registry, BlockingTaskExecutor.create(mode, "password-hasher-", poolSize, queueCapacity),
+                maxBackgroundUpgrades);
+        log.info("IN ReactivePasswordHasher - mode: {}, concurrency: {}, queue capacity: {}",
+                mode, poolSize, queueCapacity);
+    }
+
+    ReactivePasswordHasher(PasswordEncoder encoder, MeterRegistry registry, BlockingTaskExecutor executor,
+                           int maxBackgroundUpgrades) {
+        this.encoder = encoder;
+        this.executor = executor;
+        this.maxBackgroundUpgrades = maxBackgroundUpgrades;
+
+        Gauge.builder("auth.hasher.queue.depth", executor, BlockingTaskExecutor::pending)
+                .register(registry);
+        this.waitTimer = Timer.builder("auth.hasher.wait").register(registry);
+        this.hashTimer = Timer.builder("auth.hasher.hash").register(registry);
+        this.rejected = Counter.builder("auth.hasher.rejected").register(registry);
+    }
+
+    public Mono<String> encode(CharSequence rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public Mono<String> encodeIfIdle(CharSequence rawPassword) {
+        return Mono.defer(() -> executor.hasIdleWorker() ? encode(rawPassword) : Mono.empty());
+    }
+
+    public void upgradeInBackground(Mono<Void> upgrade) {
+        if (upgradesInFlight.incrementAndGet() > maxBackgroundUpgrades || !executor.hasIdleWorker()) {
+            upgradesInFlight.decrementAndGet();
+            return;
+        }
+        Disposable.Swap slot = Disposables.swap();
+        if (!upgrades.add(slot)) {
+            upgradesInFlight.decrementAndGet();
+            return;
+        }
+        slot.update(upgrade
+                .doFinally(signal -> {
+                    upgrades.remove(slot);
+                    upgradesInFlight.decrementAndGet();
+                })
+                .subscribe(null, ex -> log.warn("IN upgradeInBackground - hash upgrade failed: {}", ex.getMessage())));
+    }
+
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> Mono<T> submit(Callable<T> task) {
+        return Mono.create(sink -> {
+            long enqueuedAt = System.nanoTime();
+            try {
+                Future<?> future = executor.submit(() -> {
+                    waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                    try {
+                        sink.success(hashTimer.recordCallable(task));
+                    } catch (Exception ex) {
+                        sink.error(ex);
+                    }
+                });
+                sink.onCancel(() -> future.cancel(false));
+            } catch (RejectedExecutionException ex) {
+                rejected.increment();
+                log.warn("IN submit - password hasher saturated, queue size: {}", executor.pending());
+                sink.error(new ServiceBusyException("Too many authentication requests, retry later"));
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        upgrades.dispose();
+        executor.shutdown();
+    }
+}
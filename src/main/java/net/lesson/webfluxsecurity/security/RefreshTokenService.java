@@ -0,0 +1,93 @@
+package net.lesson.webfluxsecurity.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.lesson.webfluxsecurity.domain.RefreshTokenEntity;
+import net.lesson.webfluxsecurity.enums.AuthFailureReason;
+import net.lesson.webfluxsecurity.exception.AuthException;
+import net.lesson.webfluxsecurity.repository.RefreshTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefreshTokenService {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository repository;
+    private final Clock clock;
+    @Value("${jwt.refresh.expiration:1209600}")
+    private long expiration;
+
+    public record RefreshToken(Long userId, String token) {
+    }
+
+    public Mono<RefreshToken> issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    public Mono<RefreshToken> rotate(String refreshToken) {
+        if (refreshToken == null) {
+            return Mono.error(AuthException.of(AuthFailureReason.INVALID_REFRESH_TOKEN));
+        }
+        return repository.findByTokenHash(hash(refreshToken))
+                .filter(stored -> !stored.isRevoked() && stored.getExpiresAt().isAfter(LocalDateTime.now(clock)))
+                .switchIfEmpty(Mono.error(AuthException.of(AuthFailureReason.INVALID_REFRESH_TOKEN)))
+                .flatMap(stored -> repository.markUsed(stored.getId())
+                        .flatMap(updated -> updated == 0
+                                ? revokeReusedFamily(stored)
+                                : issue(stored.getUserId(), stored.getFamilyId())));
+    }
+
+    public Mono<Void> revoke(String refreshToken, Long userId) {
+        return repository.findByTokenHash(hash(refreshToken))
+                .filter(stored -> stored.getUserId().equals(userId))
+                .flatMap(stored -> repository.revokeFamily(stored.getFamilyId()))
+                .then();
+    }
+
+    private Mono<RefreshToken> issue(Long userId, String familyId) {
+        byte[] random = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(random);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+        LocalDateTime now = LocalDateTime.now(clock);
+
+        return repository.save(RefreshTokenEntity.builder()
+                        .userId(userId)
+                        .familyId(familyId)
+                        .tokenHash(hash(token))
+                        .expiresAt(now.plusSeconds(expiration))
+                        .createdAt(now)
+                        .build())
+                .map(saved -> new RefreshToken(userId, token));
+    }
+
+    private Mono<RefreshToken> revokeReusedFamily(RefreshTokenEntity stored) {
+        log.warn("IN rotate - refresh token reuse detected for user: {}, revoking family: {}",
+                stored.getUserId(), stored.getFamilyId());
+        return repository.revokeFamily(stored.getFamilyId())
+                .then(Mono.error(AuthException.of(AuthFailureReason.REFRESH_TOKEN_REUSED)));
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
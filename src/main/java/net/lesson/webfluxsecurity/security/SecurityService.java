@@ -1,19 +1,22 @@
 package net.lesson.webfluxsecurity.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import lombok.RequiredArgsConstructor;
-import net.lesson.webfluxsecurity.domain.UserEntity;
+import net.lesson.webfluxsecurity.enums.AuthFailureReason;
 import net.lesson.webfluxsecurity.exception.AuthException;
+import net.lesson.webfluxsecurity.exception.TooManyRequestsException;
+import net.lesson.webfluxsecurity.service.UserAuthState;
 import net.lesson.webfluxsecurity.service.UserService;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.sql.Date;
-import java.time.LocalDate;
-import java.util.Base64;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -22,38 +25,48 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class SecurityService {
     private final UserService userService;
-    private final PasswordEncoder encoder;
-    @Value("${jwt.secret}")
-    private String secret;
+    private final ReactivePasswordHasher hasher;
+    private final JwtKeyProvider keyProvider;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService revocations;
+    private final LoginRateLimiter rateLimiter;
+    private final LoginVerificationCache verifiedLogins;
+    private final AuthMetrics metrics;
+    private final Clock clock;
     @Value("${jwt.expiration}")
     private Integer expiration;
     @Value("${jwt.issuer}")
     private String issuer;
 
-    private TokenDetails generateToken(UserEntity user) {
+    TokenDetails generateToken(UserAuthState user) {
         Map<String, Object> claims = new HashMap<>() {{
-            put("role", user.getRole());
-            put("username", user.getUsername());
+            put("role", user.role());
+            put("username", user.username());
         }};
-        return generateToken(claims, user.getId().toString());
+        return generateToken(claims, user.id().toString()).toBuilder()
+                .userId(user.id())
+                .build();
     }
 
     private TokenDetails generateToken(Map<String, Object> claims, String subject) {
-        LocalDate expirationDate = LocalDate.now().plusDays(1);
+        Instant createdDate = clock.instant().truncatedTo(ChronoUnit.SECONDS);
+        Instant expirationDate = createdDate.plusSeconds(expiration);
 
-        return generateToken(expirationDate, claims, subject);
+        return generateToken(createdDate, expirationDate, claims, subject);
     }
 
-    private TokenDetails generateToken(LocalDate expirationDate, Map<String, Object> claims, String subject) {
-        LocalDate createdDate = LocalDate.now();
+    private TokenDetails generateToken(Instant createdDate, Instant expirationDate,
+                                       Map<String, Object> claims, String subject) {
+        JwtSigningKey signingKey = keyProvider.getActiveKey();
         String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
                 .setClaims(claims)
                 .setIssuer(issuer)
                 .setSubject(subject)
-                .setIssuedAt(Date.valueOf(createdDate))
+                .setIssuedAt(Date.from(createdDate))
                 .setId(UUID.randomUUID().toString())
-                .setExpiration(Date.valueOf(expirationDate))
-                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(secret.getBytes()))
+                .setExpiration(Date.from(expirationDate))
+                .signWith(signingKey.algorithm(), signingKey.signingKey())
                 .compact();
 
         return TokenDetails.builder()
@@ -64,17 +77,61 @@ public class SecurityService {
     }
 
     public Mono<TokenDetails> authenticate(String username, String password) {
+        return metrics.timeStage("login.authenticate", verifiedLogins.get(username, password,
+                        () -> metrics.timeStage("login.verify", verifyCredentials(username, password)))
+                .flatMap(verified -> userService.getAuthState(verified.id()))
+                .filter(UserAuthState::enabled)
+                .switchIfEmpty(Mono.error(AuthException.of(AuthFailureReason.BAD_CREDENTIALS)))
+                .flatMap(this::issueTokens));
+    }
+
+    private Mono<UserAuthState> verifyCredentials(String username, String password) {
+        if (!rateLimiter.tryAcquireForUsername(username)) {
+            return Mono.error(new TooManyRequestsException("Too many login attempts"));
+        }
         return userService.getUserByName(username)
                 .flatMap(user -> {
-                    if (!user.isEnabled() || !encoder.matches(password, user.getPassword())) {
-                        return Mono.error(new AuthException(
-                                "Account disabled or Invalid password", "USER_ACCOUNT_DISABLED or INVALID_PASSWORD")
-                        );
+                    if (!user.isEnabled()) {
+                        return Mono.error(AuthException.of(AuthFailureReason.BAD_CREDENTIALS));
                     }
-                    return Mono.just(generateToken(user).toBuilder()
-                            .userId(user.getId())
-                            .build());
+                    return hasher.matches(password, user.getPassword())
+                            .filter(Boolean::booleanValue)
+                            .switchIfEmpty(Mono.error(AuthException.of(AuthFailureReason.BAD_CREDENTIALS)))
+                            .doOnNext(matches -> {
+                                if (hasher.upgradeEncoding(user.getPassword())) {
+                                    hasher.upgradeInBackground(userService.upgradePassword(user, password));
+                                }
+                            })
+                            .map(matches -> UserAuthState.from(user));
                 })
-                .switchIfEmpty(Mono.error(new AuthException("Invalid username", "INVALID_USERNAME")));
+                .switchIfEmpty(Mono.error(AuthException.of(AuthFailureReason.INVALID_USERNAME)));
+    }
+
+    public Mono<TokenDetails> refresh(String refreshToken) {
+        return refreshTokenService.rotate(refreshToken)
+                .flatMap(rotated -> userService.getAuthState(rotated.userId())
+                        .filter(UserAuthState::enabled)
+                        .switchIfEmpty(Mono.error(AuthException.of(AuthFailureReason.ACCOUNT_DISABLED)))
+                        .map(user -> generateToken(user).toBuilder()
+                                .refreshToken(rotated.token())
+                                .build()));
+    }
+
+    public Mono<Void> logout(Claims claims, String refreshToken) {
+        Long userId = Long.valueOf(claims.getSubject());
+        Mono<Void> revokeAccessToken = claims.getId() == null
+                ? Mono.empty()
+                : revocations.revoke(claims.getId(), userId, claims.getExpiration().toInstant());
+        if (refreshToken == null) {
+            return revokeAccessToken;
+        }
+        return revokeAccessToken.then(refreshTokenService.revoke(refreshToken, userId));
+    }
+
+    private Mono<TokenDetails> issueTokens(UserAuthState user) {
+        return refreshTokenService.issue(user.id())
+                .map(refreshToken -> generateToken(user).toBuilder()
+                        .refreshToken(refreshToken.token())
+                        .build());
     }
 }
@@ -0,0 +1,73 @@
+package net.lesson.webfluxsecurity.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+@Component
+@ConditionalOnProperty(value = "jwt.rotation.enabled", havingValue = "true")
+class SigningKeyCipher {
+    private static final String PREFIX = "{aesgcm}";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+
+    private final SecureRandom random = new SecureRandom();
+    private final SecretKeySpec kek;
+
+    SigningKeyCipher(@Value("${jwt.rotation.kek:}") String kek) {
+        if (kek.isBlank()) {
+            throw new IllegalStateException("jwt.rotation.kek is required when jwt.rotation.enabled is true");
+        }
+        byte[] key = Base64.getDecoder().decode(kek);
+        if (key.length != 16 && key.length != 24 && key.length != 32) {
+            throw new IllegalStateException("jwt.rotation.kek must be a base64 encoded 128, 192 or 256 bit key");
+        }
+        this.kek = new SecretKeySpec(key, "AES");
+    }
+
+    String encrypt(String kid, String privateKey) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = cipher(Cipher.ENCRYPT_MODE, kid, iv);
+            byte[] sealed = cipher.doFinal(privateKey.getBytes(StandardCharsets.UTF_8));
+            return PREFIX + Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + sealed.length)
+                    .put(iv)
+                    .put(sealed)
+                    .array());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to encrypt signing key " + kid, ex);
+        }
+    }
+
+    String decrypt(String kid, String storedKey) {
+        if (!storedKey.startsWith(PREFIX)) {
+            return storedKey;
+        }
+        byte[] sealed = Base64.getDecoder().decode(storedKey.substring(PREFIX.length()));
+        try {
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, kid, sealed);
+            byte[] privateKey = cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+            return new String(privateKey, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Unable to decrypt signing key " + kid, ex);
+        }
+    }
+
+    private Cipher cipher(int mode, String kid, byte[] iv) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(mode, kek, new GCMParameterSpec(TAG_LENGTH, iv, 0, IV_LENGTH));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher;
+    }
+}
@@ -2,13 +2,14 @@ package net.lesson.webfluxsecurity.security;
 
 import lombok.Builder;
 
-import java.time.LocalDate;
+import java.time.Instant;
 
 @Builder(toBuilder = true)
 public record TokenDetails (
     Long userId,
     String token,
-    LocalDate issuedAt,
-    LocalDate expiresAt
+    String refreshToken,
+    Instant issuedAt,
+    Instant expiresAt
 ) {
 }
@@ -0,0 +1,60 @@
+package net.lesson.webfluxsecurity.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.lesson.webfluxsecurity.domain.RevokedTokenEntity;
+import net.lesson.webfluxsecurity.repository.RevokedTokenRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationService {
+    private final RevokedTokenRepository repository;
+    private final Clock clock;
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+
+    public boolean isRevoked(String jti) {
+        return jti != null && revoked.containsKey(jti);
+    }
+
+    public Mono<Void> revoke(String jti, Long userId, Instant expiresAt) {
+        revoked.put(jti, expiresAt);
+        return repository.save(RevokedTokenEntity.builder()
+                        .jti(jti)
+                        .userId(userId)
+                        .expiresAt(LocalDateTime.ofInstant(expiresAt, clock.getZone()))
+                        .revokedAt(LocalDateTime.now(clock))
+                        .build())
+                .onErrorResume(DataIntegrityViolationException.class, ex -> Mono.empty())
+                .doOnSuccess(saved -> log.info("IN revoke - token {} of user: {} revoked", jti, userId))
+                .then();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.syncInterval:5}", timeUnit = TimeUnit.SECONDS)
+    public void synchronize() {
+        sync().subscribe(null, ex -> log.error("IN synchronize - revocation sync failed: {}", ex.getMessage()));
+    }
+
+    Mono<Void> sync() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return repository.findUnexpired(now)
+                .doOnNext(entity -> revoked.put(entity.getJti(), entity.getExpiresAt().atZone(clock.getZone()).toInstant()))
+                .then(repository.deleteExpired(now))
+                .doOnSuccess(deleted -> {
+                    Instant current = clock.instant();
+                    revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(current));
+                })
+                .then();
+    }
+}
@@ -1,26 +1,35 @@
 package net.lesson.webfluxsecurity.security;
 
 import io.jsonwebtoken.Claims;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import net.lesson.webfluxsecurity.enums.UserRole;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class UserAuthBearer {
-    public static Mono<Authentication> create(JwtHandler.VerificationResult verificationResult) {
-        Claims claims = verificationResult.claims;
-        String subject = claims.getSubject();
+    private static final Map<String, List<GrantedAuthority>> AUTHORITIES = Stream.of(UserRole.values())
+            .collect(Collectors.toUnmodifiableMap(UserRole::name,
+                    role -> List.of(new SimpleGrantedAuthority(role.name()))));
 
+    public static Authentication create(JwtHandler.VerificationResult verificationResult) {
+        Claims claims = verificationResult.claims;
         String role = claims.get("role", String.class);
         String username = claims.get("username", String.class);
 
-        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(role));
-
-        Long principalId = Long.parseLong(subject);
+        Long principalId = Long.parseLong(claims.getSubject());
         CustomPrincipal principal = new CustomPrincipal(principalId, username);
 
-        return Mono.justOrEmpty(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+        return new BearerAuthentication(principal, verificationResult, authorities(role));
+    }
+
+    static List<GrantedAuthority> authorities(String role) {
+        List<GrantedAuthority> authorities = AUTHORITIES.get(role);
+        return authorities != null ? authorities : List.of(new SimpleGrantedAuthority(role));
     }
 }
@@ -0,0 +1,101 @@
+package net.lesson.webfluxsecurity.security;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+final class VirtualThreadTaskExecutor extends AbstractExecutorService implements BlockingTaskExecutor {
+    private final ExecutorService delegate;
+    private final int concurrency;
+    private final int capacity;
+    private final Semaphore admitted;
+    private final Semaphore running;
+
+    VirtualThreadTaskExecutor(String threadNamePrefix, int concurrency, int queueCapacity) {
+        this.delegate = newVirtualThreadPerTaskExecutor(threadNamePrefix);
+        this.concurrency = concurrency;
+        this.capacity = concurrency + queueCapacity;
+        this.admitted = new Semaphore(capacity);
+        this.running = new Semaphore(concurrency);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admitted.tryAcquire()) {
+            throw new RejectedExecutionException("Virtual thread executor saturated");
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    running.acquireUninterruptibly();
+                    try {
+                        task.run();
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    admitted.release();
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            admitted.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public int pending() {
+        int inFlight = capacity - admitted.availablePermits();
+        int active = concurrency - running.availablePermits();
+        return Math.max(0, inFlight - active);
+    }
+
+    @Override
+    public boolean hasIdleWorker() {
+        return pending() == 0 && running.availablePermits() > 0;
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor(String threadNamePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Virtual thread execution requires Java 21, running on "
+                    + Runtime.version(), ex);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package net.lesson.webfluxsecurity.service;
+
+import net.lesson.webfluxsecurity.domain.UserEntity;
+import net.lesson.webfluxsecurity.enums.UserRole;
+
+public record UserAuthState(
+        Long id,
+        String username,
+        UserRole role,
+        boolean enabled
+) {
+    public static UserAuthState from(UserEntity entity) {
+        return new UserAuthState(entity.getId(), entity.getUsername(), entity.getRole(), entity.isEnabled());
+    }
+}
@@ -0,0 +1,49 @@
+package net.lesson.webfluxsecurity.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.lesson.webfluxsecurity.repository.UserRepository;
+import net.lesson.webfluxsecurity.security.AuthMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+@Component
+public class UserAuthStateCache {
+    private final UserRepository repository;
+    private final AuthMetrics metrics;
+    private final AsyncCache<Long, UserAuthState> cache;
+
+    public UserAuthStateCache(UserRepository repository, MeterRegistry registry, AuthMetrics metrics,
+                              @Value("${auth.cache.userState.maxSize:10000}") long maxSize,
+                              @Value("${auth.cache.userState.ttl:30}") long ttl) {
+        this.repository = repository;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "userAuthState");
+    }
+
+    public Mono<UserAuthState> get(Long id) {
+        return Mono.defer(() -> Mono.fromFuture(cache.get(id, (key, executor) -> metrics
+                .timeQuery("users.findById", repository.findById(key))
+                .map(UserAuthState::from)
+                .toFuture()), true));
+    }
+
+    public void invalidate(Long id) {
+        cache.synchronous().invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+}
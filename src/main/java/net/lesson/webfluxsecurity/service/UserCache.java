@@ -0,0 +1,69 @@
+package net.lesson.webfluxsecurity.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.lesson.webfluxsecurity.domain.UserEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+public class UserCache {
+    private final boolean enabled;
+    private final AsyncCache<Long, UserEntity> byId;
+    private final AsyncCache<String, UserEntity> byUsername;
+
+    public UserCache(MeterRegistry registry,
+                     @Value("${auth.cache.user.enabled:true}") boolean enabled,
+                     @Value("${auth.cache.user.maxSize:10000}") long maxSize,
+                     @Value("${auth.cache.user.ttl:300}") long ttl) {
+        this.enabled = enabled;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .recordStats()
+                .buildAsync();
+        this.byUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttl))
+                .recordStats()
+                .buildAsync();
+
+        CaffeineCacheMetrics.monitor(registry, byId.synchronous(), "userById");
+        CaffeineCacheMetrics.monitor(registry, byUsername.synchronous(), "userByUsername");
+    }
+
+    public Mono<UserEntity> getById(Long id, Function<Long, Mono<UserEntity>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return Mono.defer(() -> Mono.fromFuture(byId.get(id, (key, executor) -> loader.apply(key).toFuture()), true));
+    }
+
+    public Mono<UserEntity> getByUsername(String username, Function<String, Mono<UserEntity>> loader) {
+        if (!enabled) {
+            return loader.apply(username);
+        }
+        return Mono.defer(() -> Mono.fromFuture(byUsername.get(username,
+                (key, executor) -> loader.apply(key).toFuture()), true));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void invalidate(Long id, String username) {
+        byId.synchronous().invalidate(id);
+        byUsername.synchronous().invalidate(username);
+    }
+
+    public void invalidateAll() {
+        byId.synchronous().invalidateAll();
+        byUsername.synchronous().invalidateAll();
+    }
+}
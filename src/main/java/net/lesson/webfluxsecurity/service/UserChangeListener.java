@@ -0,0 +1,102 @@
+package net.lesson.webfluxsecurity.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.postgresql.api.Notification;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.postgresql.api.PostgresqlResult;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "auth.cache.user.enabled", havingValue = "true", matchIfMissing = true)
+public class UserChangeListener implements DisposableBean {
+    static final String CHANNEL = "user_changed";
+
+    private final ConnectionFactory connectionFactory;
+    private final UserCache userCache;
+    private final UserAuthStateCache authStateCache;
+    private final Counter invalidations;
+    private Disposable subscription;
+
+    public UserChangeListener(R2dbcProperties properties, UserCache userCache, UserAuthStateCache authStateCache,
+                              MeterRegistry registry) {
+        this.connectionFactory = ConnectionFactories.get(options(properties));
+        this.userCache = userCache;
+        this.authStateCache = authStateCache;
+        this.invalidations = Counter.builder("auth.cache.user.invalidations")
+                .tag("source", "notify")
+                .register(registry);
+    }
+
+    private static ConnectionFactoryOptions options(R2dbcProperties properties) {
+        ConnectionFactoryOptions.Builder builder = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            builder.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            builder.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+        return builder.build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        subscription = listen()
+                .doOnError(ex -> log.warn("IN listen - user change listener failed: {}", ex.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .transientErrors(true))
+                .subscribe(this::onNotification);
+    }
+
+    private Flux<Notification> listen() {
+        return Flux.usingWhen(Mono.from(connectionFactory.create()).cast(PostgresqlConnection.class),
+                connection -> connection.createStatement("LISTEN " + CHANNEL)
+                        .execute()
+                        .flatMap(PostgresqlResult::getRowsUpdated)
+                        .thenMany(Flux.defer(() -> {
+                            userCache.invalidateAll();
+                            authStateCache.invalidateAll();
+                            log.info("IN listen - listening for user changes on channel: {}", CHANNEL);
+                            return connection.getNotifications();
+                        })),
+                Connection::close)
+                .concatWith(Mono.error(() -> new IllegalStateException("notification stream completed")));
+    }
+
+    void onNotification(Notification notification) {
+        String payload = notification.getParameter();
+        int separator = payload == null ? -1 : payload.indexOf(':');
+        if (separator < 0) {
+            return;
+        }
+        Long id = Long.valueOf(payload.substring(0, separator));
+        userCache.invalidate(id, payload.substring(separator + 1));
+        authStateCache.invalidate(id);
+        invalidations.increment();
+    }
+
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package net.lesson.webfluxsecurity.service;
+
+import net.lesson.webfluxsecurity.enums.UserImportStatus;
+
+public record UserImportResult(long line, String username, UserImportStatus status, Long id, String message) {
+    static UserImportResult created(long line, String username, Long id) {
+        return new UserImportResult(line, username, UserImportStatus.CREATED, id, null);
+    }
+
+    static UserImportResult duplicate(long line, String username) {
+        return new UserImportResult(line, username, UserImportStatus.DUPLICATE, null, "Username already exists");
+    }
+
+    static UserImportResult invalid(long line, String username, String message) {
+        return new UserImportResult(line, username, UserImportStatus.INVALID, null, message);
+    }
+
+    static UserImportResult failed(long line, String username, String message) {
+        return new UserImportResult(line, username, UserImportStatus.FAILED, null, message);
+    }
+}
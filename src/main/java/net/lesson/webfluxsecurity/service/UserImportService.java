@@ -0,0 +1,143 @@
+package net.lesson.webfluxsecurity.service;
+
+import lombok.extern.slf4j.Slf4j;
+import net.lesson.webfluxsecurity.domain.UserEntity;
+import net.lesson.webfluxsecurity.enums.UserRole;
+import net.lesson.webfluxsecurity.exception.ServiceBusyException;
+import net.lesson.webfluxsecurity.repository.UserBatchRepository;
+import net.lesson.webfluxsecurity.security.ReactivePasswordHasher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Slf4j
+@Service
+public class UserImportService {
+    private static final int MAX_NAME_LENGTH = 64;
+
+    private final Clock clock;
+    private final UserBatchRepository repository;
+    private final ReactivePasswordHasher hasher;
+    private final int batchSize;
+    private final int hashConcurrency;
+
+    public UserImportService(Clock clock, UserBatchRepository repository, ReactivePasswordHasher hasher,
+                             @Value("${auth.import.batchSize:500}") int batchSize,
+                             @Value("${auth.import.hashConcurrency:4}") int hashConcurrency) {
+        this.clock = clock;
+        this.repository = repository;
+        this.hasher = hasher;
+        this.batchSize = batchSize;
+        this.hashConcurrency = hashConcurrency;
+    }
+
+    public Flux<UserImportResult> importUsers(Flux<UserEntity> users) {
+        return users.index()
+                .flatMapSequential(row -> prepare(row.getT1() + 1, row.getT2()), hashConcurrency)
+                .buffer(batchSize)
+                .concatMap(this::insertBatch);
+    }
+
+    private Mono<ImportRow> prepare(long line, UserEntity user) {
+        String violation = validate(user);
+        if (violation != null) {
+            return Mono.just(new ImportRow(line, user,
+                    UserImportResult.invalid(line, user.getUsername(), violation)));
+        }
+        return hasher.encode(user.getPassword())
+                .retryWhen(Retry.backoff(3, Duration.ofMillis(50))
+                        .filter(ex -> ex instanceof ServiceBusyException))
+                .map(password -> new ImportRow(line, user.toBuilder()
+                        .password(password)
+                        .role(user.getRole() == null ? UserRole.USER : user.getRole())
+                        .enabled(true)
+                        .createdAt(LocalDateTime.now(clock))
+                        .updatedAt(LocalDateTime.now(clock))
+                        .build(), null))
+                .onErrorResume(ex -> Mono.just(new ImportRow(line, user,
+                        UserImportResult.failed(line, user.getUsername(), "Password hashing failed"))));
+    }
+
+    private Flux<UserImportResult> insertBatch(List<ImportRow> rows) {
+        UserImportResult[] results = new UserImportResult[rows.size()];
+        List<UserEntity> inserts = new ArrayList<>(rows.size());
+        Set<String> usernames = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            if (row.result() != null) {
+                results[i] = row.result();
+            } else if (!usernames.add(row.user().getUsername())) {
+                results[i] = UserImportResult.duplicate(row.line(), row.user().getUsername());
+            } else {
+                inserts.add(row.user());
+            }
+        }
+
+        Mono<Map<String, Long>> insertedIds = inserts.isEmpty()
+                ? Mono.just(Map.of())
+                : repository.insertIgnoringDuplicates(inserts).collectMap(UserEntity::getUsername, UserEntity::getId);
+        return insertedIds
+                .map(ids -> resolve(rows, results, ids))
+                .onErrorResume(ex -> {
+                    log.error("IN importUsers - batch of {} users failed: {}", inserts.size(), ex.getMessage());
+                    return Mono.just(fail(rows, results));
+                })
+                .flatMapIterable(Arrays::asList);
+    }
+
+    private static UserImportResult[] resolve(List<ImportRow> rows, UserImportResult[] results, Map<String, Long> ids) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                String username = rows.get(i).user().getUsername();
+                Long id = ids.get(username);
+                results[i] = id == null
+                        ? UserImportResult.duplicate(rows.get(i).line(), username)
+                        : UserImportResult.created(rows.get(i).line(), username, id);
+            }
+        }
+        return results;
+    }
+
+    private static UserImportResult[] fail(List<ImportRow> rows, UserImportResult[] results) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = UserImportResult.failed(rows.get(i).line(), rows.get(i).user().getUsername(),
+                        "Batch insert failed");
+            }
+        }
+        return results;
+    }
+
+    private static String validate(UserEntity user) {
+        if (isBlank(user.getUsername()) || user.getUsername().length() > MAX_NAME_LENGTH) {
+            return "Username is required and must be at most " + MAX_NAME_LENGTH + " characters";
+        }
+        if (isBlank(user.getPassword())) {
+            return "Password is required";
+        }
+        if (isBlank(user.getFirstName()) || user.getFirstName().length() > MAX_NAME_LENGTH
+                || isBlank(user.getLastName()) || user.getLastName().length() > MAX_NAME_LENGTH) {
+            return "First and last name are required and must be at most " + MAX_NAME_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private record ImportRow(long line, UserEntity user, UserImportResult result) {
+    }
+}
@@ -1,12 +1,16 @@
 package net.lesson.webfluxsecurity.service;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.lesson.webfluxsecurity.domain.UserEntity;
 import net.lesson.webfluxsecurity.enums.UserRole;
+import net.lesson.webfluxsecurity.repository.UserFilter;
 import net.lesson.webfluxsecurity.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import net.lesson.webfluxsecurity.repository.UserSearchRepository;
+import net.lesson.webfluxsecurity.security.AuthMetrics;
+import net.lesson.webfluxsecurity.security.ReactivePasswordHasher;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Clock;
@@ -14,31 +18,109 @@ import java.time.LocalDateTime;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class UserService {
     private final Clock clock;
     private final UserRepository repository;
-    private final PasswordEncoder encoder;
+    private final ReactivePasswordHasher hasher;
+    private final UserAuthStateCache authStateCache;
+    private final AuthMetrics metrics;
+    private final UserSearchRepository searchRepository;
+    private final UserCache userCache;
+    private final int pageSize;
+
+    public UserService(Clock clock, UserRepository repository, ReactivePasswordHasher hasher,
+                       UserAuthStateCache authStateCache, AuthMetrics metrics, UserSearchRepository searchRepository,
+                       UserCache userCache, @Value("${auth.listing.pageSize:500}") int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("auth.listing.pageSize must be positive: " + pageSize);
+        }
+        this.clock = clock;
+        this.repository = repository;
+        this.hasher = hasher;
+        this.authStateCache = authStateCache;
+        this.metrics = metrics;
+        this.searchRepository = searchRepository;
+        this.userCache = userCache;
+        this.pageSize = pageSize;
+    }
 
     public Mono<UserEntity> registerUser(UserEntity entity) {
-        return repository.save(
-                entity.toBuilder()
-                        .password(encoder.encode(entity.getPassword()))
-                        .role(UserRole.USER)
-                        .enabled(true)
-                        .createdAt(LocalDateTime.now(clock))
-                        .updatedAt(LocalDateTime.now(clock))
-                        .build()
-        ).doOnSuccess(user -> {
-            log.info("IN register - user: {} created", user);
-        });
+        return hasher.encode(entity.getPassword())
+                .flatMap(password -> repository.save(
+                        entity.toBuilder()
+                                .password(password)
+                                .role(UserRole.USER)
+                                .enabled(true)
+                                .createdAt(LocalDateTime.now(clock))
+                                .updatedAt(LocalDateTime.now(clock))
+                                .build()
+                ))
+                .doOnSuccess(user -> {
+                    log.info("IN register - user: {} created", user);
+                });
+    }
+
+    public Mono<UserEntity> disableUser(Long id) {
+        return repository.findById(id)
+                .flatMap(user -> repository.save(
+                        user.toBuilder()
+                                .enabled(false)
+                                .updatedAt(LocalDateTime.now(clock))
+                                .build()
+                ))
+                .doOnSuccess(user -> {
+                    if (user != null) {
+                        userCache.invalidate(id, user.getUsername());
+                    }
+                    authStateCache.invalidate(id);
+                    log.info("IN disableUser - user with id: {} disabled", id);
+                });
+    }
+
+    public Mono<Void> upgradePassword(UserEntity user, String rawPassword) {
+        return hasher.encodeIfIdle(rawPassword)
+                .flatMap(password -> repository.updatePassword(user.getId(), user.getPassword(), password))
+                .filter(updated -> updated > 0)
+                .doOnNext(updated -> {
+                    userCache.invalidate(user.getId(), user.getUsername());
+                    log.info("IN upgradePassword - password hash of user with id: {} upgraded", user.getId());
+                })
+                .onErrorResume(ex -> {
+                    log.warn("IN upgradePassword - rehash for user with id: {} failed: {}", user.getId(), ex.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    public Flux<UserEntity> listUsers(UserFilter filter, long afterId, Integer limit) {
+        if (limit != null) {
+            return searchRepository.findPage(filter, afterId, Math.max(1, Math.min(limit, pageSize)));
+        }
+        return searchRepository.findPage(filter, afterId, pageSize)
+                .collectList()
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : searchRepository.findPage(filter, page.get(page.size() - 1).getId(), pageSize).collectList())
+                .flatMapIterable(page -> page, 1);
+    }
+
+    public Mono<UserAuthState> getAuthState(Long id) {
+        return authStateCache.get(id);
     }
 
     public Mono<UserEntity> getUserById(Long id) {
-        return repository.findById(id);
+        return userCache.getById(id, key -> metrics.timeQuery("users.findById", repository.findById(key)));
+    }
+
+    public Mono<LocalDateTime> getUserVersion(Long id) {
+        if (userCache.isEnabled()) {
+            return getUserById(id).mapNotNull(UserEntity::getUpdatedAt);
+        }
+        return metrics.timeQuery("users.findVersionById", repository.findUpdatedAtById(id));
     }
 
     public Mono<UserEntity> getUserByName(String name) {
-        return repository.findByUsername(name);
+        return userCache.getByUsername(name,
+                key -> metrics.timeQuery("users.findByUsername", repository.findByUsername(key)));
     }
 }
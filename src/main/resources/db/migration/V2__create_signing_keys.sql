@@ -0,0 +1,11 @@
+create table signing_keys (
+    id                  serial primary key,
+    kid                 varchar(64) not null unique,
+    algorithm           varchar(16) not null,
+    private_key         varchar(4096) not null,
+    public_key          varchar(4096),
+    activates_at        timestamp not null,
+    created_at          timestamp not null
+);
+
+create index signing_keys_activates_at_idx on signing_keys (activates_at desc);
@@ -0,0 +1,13 @@
+create table refresh_tokens (
+    id                  serial primary key,
+    user_id             integer not null references users (id),
+    family_id           varchar(36) not null,
+    token_hash          varchar(64) not null,
+    used                boolean not null default false,
+    revoked             boolean not null default false,
+    expires_at          timestamp not null,
+    created_at          timestamp not null
+);
+
+create unique index refresh_tokens_token_hash_idx on refresh_tokens (token_hash);
+create index refresh_tokens_family_id_idx on refresh_tokens (family_id);
@@ -0,0 +1,10 @@
+create table revoked_tokens (
+    id                  serial primary key,
+    jti                 varchar(64) not null unique,
+    user_id             integer not null,
+    expires_at          timestamp not null,
+    revoked_at          timestamp not null
+);
+
+create index revoked_tokens_revoked_at_idx on revoked_tokens (revoked_at);
+create index revoked_tokens_expires_at_idx on revoked_tokens (expires_at);
@@ -0,0 +1,3 @@
+create index users_role_id_idx on users (role, id);
+create index users_enabled_id_idx on users (enabled, id);
+create index users_created_at_id_idx on users (created_at, id);
@@ -0,0 +1,10 @@
+create or replace function notify_user_changed() returns trigger as $$
+begin
+    perform pg_notify('user_changed', old.id || ':' || old.username);
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger users_changed_notify
+    after update or delete on users
+    for each row execute function notify_user_changed();
@@ -0,0 +1,14 @@
+create or replace function touch_user_updated_at() returns trigger as $$
+begin
+    if new.updated_at is not distinct from old.updated_at
+        and (new.username, new.role, new.first_name, new.last_name, new.enabled)
+            is distinct from (old.username, old.role, old.first_name, old.last_name, old.enabled) then
+        new.updated_at = now();
+    end if;
+    return new;
+end;
+$$ language plpgsql;
+
+create trigger users_touch_updated_at
+    before update on users
+    for each row execute function touch_user_updated_at();
@@ -0,0 +1,76 @@
+package net.lesson.webfluxsecurity.errorhandling;
+
+import net.lesson.webfluxsecurity.exception.ApiException;
+import net.lesson.webfluxsecurity.exception.ServiceBusyException;
+import net.lesson.webfluxsecurity.exception.TooManyRequestsException;
+import net.lesson.webfluxsecurity.exception.UnauthorizedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerRequest;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppErrorAttributesTest {
+    private final AppErrorAttributes attributes = new AppErrorAttributes();
+
+    @Test
+    void statusIsResolvedPerError() {
+        assertThat(AppErrorAttributes.errorType(new UnauthorizedException("Token expired")).status())
+                .isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(AppErrorAttributes.errorType(new ServiceBusyException("busy")).status())
+                .isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(AppErrorAttributes.errorType(new TooManyRequestsException("slow down")).status())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(AppErrorAttributes.errorType(new ApiException("bad", "BAD")).status())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(AppErrorAttributes.errorType(new IllegalStateException()).status())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(AppErrorAttributes.errorType(null).status())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void interleavedErrorsKeepTheirOwnStatus() {
+        var unauthorized = request(new UnauthorizedException("Token expired"));
+        var internal = request(new IllegalStateException());
+
+        var firstError = attributes.getError(unauthorized);
+        var secondError = attributes.getError(internal);
+        var firstType = AppErrorAttributes.errorType(firstError);
+        var secondType = AppErrorAttributes.errorType(secondError);
+
+        assertThat(firstType.status()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(body(firstError, firstType))
+                .isEqualTo("{\"errors\":[{\"code\":\"UNAUTHORIZED\",\"message\":\"Token expired\"}]}");
+        assertThat(secondType.status()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(body(secondError, secondType))
+                .isEqualTo("{\"errors\":[{\"code\":\"INTERNAL_ERROR\",\"message\":\""
+                        + IllegalStateException.class.getName() + "\"}]}");
+    }
+
+    @Test
+    void errorBodyIsEscapedJson() {
+        var body = WebExceptionHandler.errorBody("UNAUTHORIZED", "Bad \"token\"\n");
+
+        assertThat(new String(body, StandardCharsets.UTF_8))
+                .isEqualTo("{\"errors\":[{\"code\":\"UNAUTHORIZED\",\"message\":\"Bad \\\"token\\\"\\n\"}]}");
+        assertThat(new String(WebExceptionHandler.errorBody("UNAUTHORIZED", null), StandardCharsets.UTF_8))
+                .isEqualTo("{\"errors\":[{\"code\":\"UNAUTHORIZED\",\"message\":null}]}");
+    }
+
+    private static String body(Throwable error, AppErrorAttributes.ErrorType type) {
+        return new String(WebExceptionHandler.errorBody(AppErrorAttributes.code(error, type),
+                AppErrorAttributes.message(error, type)), StandardCharsets.UTF_8);
+    }
+
+    private ServerRequest request(Throwable error) {
+        var exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/auth/info"));
+        attributes.storeErrorInformation(error, exchange);
+        return ServerRequest.create(exchange, HandlerStrategies.withDefaults().messageReaders());
+    }
+}
@@ -0,0 +1,139 @@
+package net.lesson.webfluxsecurity.resource;
+
+import net.lesson.webfluxsecurity.domain.UserEntity;
+import net.lesson.webfluxsecurity.enums.UserImportStatus;
+import net.lesson.webfluxsecurity.enums.UserRole;
+import net.lesson.webfluxsecurity.errorhandling.AppErrorAttributes;
+import net.lesson.webfluxsecurity.mapper.UserMapper;
+import net.lesson.webfluxsecurity.model.UserDTO;
+import net.lesson.webfluxsecurity.repository.UserFilter;
+import net.lesson.webfluxsecurity.security.LoginRateLimiter;
+import net.lesson.webfluxsecurity.service.UserImportResult;
+import net.lesson.webfluxsecurity.service.UserImportService;
+import net.lesson.webfluxsecurity.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.*;
+
+@WebFluxTest(controllers = AdminRestController.class)
+@Import(AdminRestControllerTest.MethodSecurityConfig.class)
+class AdminRestControllerTest {
+    private static final String TEST_URI = "/api/v1/admin/";
+    private static final String USER_LINE = "{\"username\":\"Anbi\",\"password\":\"!2wdd\"}\n";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private AppErrorAttributes attributes;
+    @MockBean
+    private UserService mockUserService;
+    @MockBean
+    private UserImportService mockImportService;
+    @MockBean
+    private UserMapper mockUserMapper;
+    @MockBean
+    private LoginRateLimiter mockRateLimiter;
+
+    @Test
+    void listUsersIsForbiddenForUser() {
+        webTestClient
+                .mutateWith(mockUser().authorities(new SimpleGrantedAuthority(UserRole.USER.name())))
+                .get()
+                .uri(TEST_URI + "users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isForbidden();
+        verify(mockUserService, never()).listUsers(any(), anyLong(), any());
+    }
+
+    @Test
+    void listUsersForAdmin() {
+        var entity = createEntity();
+        var filter = new UserFilter(null, null, null, null);
+
+        given(mockUserService.listUsers(filter, 0L, null)).willReturn(Flux.just(entity));
+        given(mockUserMapper.map(entity)).willReturn(responseItem());
+
+        webTestClient
+                .mutateWith(mockUser().authorities(new SimpleGrantedAuthority(UserRole.ADMIN.name())))
+                .get()
+                .uri(TEST_URI + "users")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserDTO.class).hasSize(1);
+    }
+
+    @Test
+    void importUsersIsForbiddenForUser() {
+        webTestClient
+                .mutateWith(csrf())
+                .mutateWith(mockUser().authorities(new SimpleGrantedAuthority(UserRole.USER.name())))
+                .post()
+                .uri(TEST_URI + "users:import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(USER_LINE)
+                .exchange()
+                .expectStatus().isForbidden();
+        verify(mockImportService, never()).importUsers(any());
+    }
+
+    @Test
+    void importUsersForAdmin() {
+        given(mockUserMapper.map(any(UserDTO.class))).willReturn(createEntity());
+        given(mockImportService.importUsers(any()))
+                .willReturn(Flux.just(new UserImportResult(1, "Anbi", UserImportStatus.CREATED, 1L, null)));
+
+        webTestClient
+                .mutateWith(csrf())
+                .mutateWith(mockUser().authorities(new SimpleGrantedAuthority(UserRole.ADMIN.name())))
+                .post()
+                .uri(TEST_URI + "users:import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(USER_LINE)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private UserEntity createEntity() {
+        return UserEntity.builder()
+                .id(1L)
+                .username("Anbi")
+                .role(UserRole.USER)
+                .password("!2wdd")
+                .enabled(true)
+                .build();
+    }
+
+    private UserDTO responseItem() {
+        return UserDTO.builder()
+                .id(1L)
+                .username("Anbi")
+                .role(UserRole.USER)
+                .enabled(true)
+                .build();
+    }
+
+    @TestConfiguration
+    @EnableReactiveMethodSecurity
+    static class MethodSecurityConfig {
+    }
+}
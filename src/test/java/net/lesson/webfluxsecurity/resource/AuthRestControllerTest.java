@@ -1,5 +1,6 @@
 package net.lesson.webfluxsecurity.resource;
 
+import io.jsonwebtoken.impl.DefaultClaims;
 import net.lesson.webfluxsecurity.domain.UserEntity;
 import net.lesson.webfluxsecurity.enums.UserRole;
 import net.lesson.webfluxsecurity.errorhandling.AppErrorAttributes;
@@ -8,15 +9,20 @@ import net.lesson.webfluxsecurity.exception.UnauthorizedException;
 import net.lesson.webfluxsecurity.mapper.UserMapper;
 import net.lesson.webfluxsecurity.model.AuthRequestDTO;
 import net.lesson.webfluxsecurity.model.AuthResponseDTO;
+import net.lesson.webfluxsecurity.model.RefreshRequestDTO;
 import net.lesson.webfluxsecurity.model.UserDTO;
 import net.lesson.webfluxsecurity.security.CustomPrincipal;
+import net.lesson.webfluxsecurity.security.JwtHandler;
+import net.lesson.webfluxsecurity.security.LoginRateLimiter;
 import net.lesson.webfluxsecurity.security.SecurityService;
 import net.lesson.webfluxsecurity.security.TokenDetails;
 import net.lesson.webfluxsecurity.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -25,12 +31,16 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.reactive.function.BodyInserters;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDate;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.*;
 
 
@@ -53,6 +63,13 @@ class AuthRestControllerTest {
     private SecurityService mockSecurityService;
     @MockBean
     private UserMapper mockUserMapper;
+    @MockBean
+    private LoginRateLimiter mockRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        given(mockRateLimiter.tryAcquireForIp(anyString())).willReturn(true);
+    }
 
     @Test
     @WithMockUser
@@ -127,6 +144,59 @@ class AuthRestControllerTest {
                 .expectBody(AuthResponseDTO.class);
     }
 
+    @Test
+    @WithMockUser
+    void loginWithoutPasswordIsBadRequest() {
+        given(attributes.getError(any())).willReturn(new ApiException("Username and password are required", "INVALID_REQUEST"));
+
+        webTestClient
+                .mutateWith(csrf())
+                .post()
+                .uri(TEST_URI + "login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"username\":\"" + USERNAME + "\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors[0].code").isEqualTo("INVALID_REQUEST");
+        verify(mockSecurityService, never()).authenticate(any(), any());
+    }
+
+    @Test
+    void refreshWithOkStatus() {
+        var request = new RefreshRequestDTO("mE4Ojk3ZnSAXr6hYyLqV0q0F2yQZ1cYw9cxk2n0Sg3E");
+        var tokenDetails = getDetails();
+
+        given(mockSecurityService.refresh(request.refreshToken())).willReturn(Mono.just(tokenDetails));
+
+        webTestClient
+                .mutateWith(csrf())
+                .mutateWith(mockUser())
+                .post()
+                .uri(TEST_URI + "refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(request))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AuthResponseDTO.class);
+    }
+
+    @Test
+    @WithMockUser
+    void refreshWithoutTokenIsBadRequest() {
+        given(attributes.getError(any())).willReturn(new ApiException("Refresh token is required", "INVALID_REQUEST"));
+
+        webTestClient
+                .mutateWith(csrf())
+                .post()
+                .uri(TEST_URI + "refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors[0].code").isEqualTo("INVALID_REQUEST");
+        verify(mockSecurityService, never()).refresh(any());
+    }
+
     @Test
     @WithMockUser
     void loginFailed() {
@@ -166,9 +236,100 @@ class AuthRestControllerTest {
                 .accept(MediaType.APPLICATION_JSON)
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG,
+                        AuthRestController.eTag(principal.getId(), userEntity.getUpdatedAt()))
+                .expectBody(UserDTO.class);
+    }
+
+    @Test
+    void fetchUserInfoNotModifiedWhenETagMatches() {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(UserRole.USER.name()));
+        var auth = new UsernamePasswordAuthenticationToken(new CustomPrincipal(6L, USERNAME), null, authorities);
+        var version = LocalDateTime.of(2023, 2, 21, 3, 34);
+
+        given(mockUserService.getUserVersion(6L)).willReturn(Mono.just(version));
+
+        webTestClient
+                .mutateWith(csrf())
+                .mutateWith(mockAuthentication(auth))
+                .get()
+                .uri(TEST_URI + "info")
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(AuthRestController.eTag(6L, version))
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        verify(mockUserService, never()).getUserById(anyLong());
+    }
+
+    @Test
+    void fetchUserInfoWhenETagIsStale() {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(UserRole.USER.name()));
+        var auth = new UsernamePasswordAuthenticationToken(new CustomPrincipal(6L, USERNAME), null, authorities);
+        var userEntity = createEntity();
+
+        given(mockUserService.getUserVersion(6L)).willReturn(Mono.just(userEntity.getUpdatedAt()));
+        given(mockUserService.getUserById(6L)).willReturn(Mono.just(userEntity));
+        given(mockUserMapper.map(userEntity)).willReturn(responseItem());
+
+        webTestClient
+                .mutateWith(csrf())
+                .mutateWith(mockAuthentication(auth))
+                .get()
+                .uri(TEST_URI + "info")
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(AuthRestController.eTag(6L, userEntity.getCreatedAt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, AuthRestController.eTag(6L, userEntity.getUpdatedAt()))
                 .expectBody(UserDTO.class);
     }
 
+    @Test
+    void fetchUserInfoWithoutVersionWhenETagIsStale() {
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(UserRole.USER.name()));
+        var auth = new UsernamePasswordAuthenticationToken(new CustomPrincipal(6L, USERNAME), null, authorities);
+        var userEntity = createEntity().toBuilder().updatedAt(null).build();
+
+        given(mockUserService.getUserVersion(6L)).willReturn(Mono.empty());
+        given(mockUserService.getUserById(6L)).willReturn(Mono.just(userEntity));
+        given(mockUserMapper.map(userEntity)).willReturn(responseItem());
+
+        webTestClient
+                .mutateWith(csrf())
+                .mutateWith(mockAuthentication(auth))
+                .get()
+                .uri(TEST_URI + "info")
+                .accept(MediaType.APPLICATION_JSON)
+                .ifNoneMatch(AuthRestController.eTag(6L, userEntity.getCreatedAt()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, AuthRestController.eTag(6L, null))
+                .expectBody().jsonPath("$.id").isEqualTo(16);
+    }
+
+    @Test
+    void logoutRevokesCurrentToken() {
+        var request = new RefreshRequestDTO("mE4Ojk3ZnSAXr6hYyLqV0q0F2yQZ1cYw9cxk2n0Sg3E");
+        var claims = new DefaultClaims().setId("0f8fad5b-d9cb-469f-a165-70867728950e").setSubject("6");
+        var verificationResult = new JwtHandler.VerificationResult(claims, "eyJhbGciOiJIUzI1NiJ9.");
+        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(UserRole.USER.name()));
+        var auth = new UsernamePasswordAuthenticationToken(new CustomPrincipal(6L, USERNAME), verificationResult, authorities);
+
+        given(mockSecurityService.logout(claims, request.refreshToken())).willReturn(Mono.empty());
+
+        webTestClient
+                .mutateWith(csrf())
+                .mutateWith(mockAuthentication(auth))
+                .post()
+                .uri(TEST_URI + "logout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromValue(request))
+                .exchange()
+                .expectStatus().isOk();
+        verify(mockSecurityService).logout(claims, request.refreshToken());
+    }
+
     @Test
     @WithMockUser
     void failedWith500ToFetchUserInfo() {
@@ -228,8 +389,8 @@ class AuthRestControllerTest {
         return TokenDetails.builder()
                 .userId(16L)
                 .token("")
-                .issuedAt(LocalDate.of(2023, 3, 2))
-                .expiresAt(LocalDate.of(2023, 5, 30))
+                .issuedAt(Instant.parse("2023-03-02T08:00:00Z"))
+                .expiresAt(Instant.parse("2023-03-02T09:00:00Z"))
                 .build();
     }
 }
\ No newline at end of file
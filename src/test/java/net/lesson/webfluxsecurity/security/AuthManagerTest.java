@@ -1,13 +1,16 @@
 package net.lesson.webfluxsecurity.security;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.lesson.webfluxsecurity.domain.UserEntity;
 import net.lesson.webfluxsecurity.enums.UserRole;
 import net.lesson.webfluxsecurity.exception.UnauthorizedException;
+import net.lesson.webfluxsecurity.service.UserAuthState;
 import net.lesson.webfluxsecurity.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import reactor.core.publisher.Mono;
@@ -24,6 +27,8 @@ class AuthManagerTest {
 
     @Mock
     private UserService mockUserService;
+    @Spy
+    private AuthMetrics metrics = new AuthMetrics(new SimpleMeterRegistry());
 
     @InjectMocks
     private AuthManager authManager;
@@ -32,7 +37,7 @@ class AuthManagerTest {
     void authenticateOK() {
         var entity = createEntity();
         var principal = new CustomPrincipal(1L, "name");
-        given(mockUserService.getUserById(principal.getId())).willReturn(Mono.just(entity));
+        given(mockUserService.getAuthState(principal.getId())).willReturn(Mono.just(UserAuthState.from(entity)));
 
         var actualResult = authManager.authenticate(new UsernamePasswordAuthenticationToken(principal, null, new ArrayList<>()));
 
@@ -47,7 +52,25 @@ class AuthManagerTest {
     @Test
     void authenticateThrowsException() {
         var principal = new CustomPrincipal(10L, "test");
-        given(mockUserService.getUserById(principal.getId())).willReturn(Mono.empty());
+        given(mockUserService.getAuthState(principal.getId())).willReturn(Mono.empty());
+
+        var actualResult = authManager.authenticate(
+                new UsernamePasswordAuthenticationToken(principal, null, new ArrayList<>())
+        );
+
+        StepVerifier
+                .create(actualResult)
+                .expectErrorMatches(throwable -> throwable instanceof UnauthorizedException)
+                .verify();
+    }
+
+    @Test
+    void authenticateDisabledUserThrowsException() {
+        var entity = createEntity().toBuilder()
+                .enabled(false)
+                .build();
+        var principal = new CustomPrincipal(1L, "name");
+        given(mockUserService.getAuthState(principal.getId())).willReturn(Mono.just(UserAuthState.from(entity)));
 
         var actualResult = authManager.authenticate(
                 new UsernamePasswordAuthenticationToken(principal, null, new ArrayList<>())
@@ -0,0 +1,60 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.lesson.webfluxsecurity.enums.AuthFailureReason;
+import net.lesson.webfluxsecurity.exception.UnauthorizedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthMetricsTest {
+    private SimpleMeterRegistry registry;
+    private AuthMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new AuthMetrics(registry);
+    }
+
+    @Test
+    void stageTimedWithOutcome() {
+        StepVerifier.create(metrics.timeStage("jwt.check", Mono.just("token"))).expectNext("token").verifyComplete();
+        StepVerifier.create(metrics.timeStage("jwt.check", Mono.error(new SignatureException("bad"))))
+                .expectError(SignatureException.class)
+                .verify();
+
+        assertThat(registry.get("auth.pipeline").tags("stage", "jwt.check", "outcome", "ok").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("auth.pipeline").tags("stage", "jwt.check", "outcome", "bad-signature").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void queryTimedOnlyWhenSubscribed() {
+        var query = metrics.timeQuery("users.findById", Mono.empty());
+
+        assertThat(registry.find("auth.db.query").timer()).isNull();
+        StepVerifier.create(query).verifyComplete();
+        assertThat(registry.get("auth.db.query").tags("query", "users.findById", "outcome", "empty").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void outcomeResolvedFromErrorCode() {
+        assertThat(AuthMetrics.outcome(new ExpiredJwtException(null, null, "expired"))).isEqualTo("expired");
+        assertThat(AuthMetrics.outcome(new UnauthorizedException("User disabled", "USER_ACCOUNT_DISABLED")))
+                .isEqualTo("disabled");
+        assertThat(AuthMetrics.outcome(new UnauthorizedException("Token revoked", "TOKEN_REVOKED"))).isEqualTo("revoked");
+        assertThat(AuthMetrics.outcome(new UnauthorizedException("Unknown"))).isEqualTo("rejected");
+        assertThat(AuthMetrics.outcome(new IllegalStateException())).isEqualTo("error");
+        assertThat(AuthMetrics.outcome(UnauthorizedException.of(AuthFailureReason.TOKEN_EXPIRED))).isEqualTo("expired");
+        assertThat(AuthMetrics.outcome(UnauthorizedException.of(AuthFailureReason.TOKEN_BAD_SIGNATURE)))
+                .isEqualTo("bad-signature");
+    }
+}
@@ -1,34 +1,42 @@
 package net.lesson.webfluxsecurity.security;
 
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import net.lesson.webfluxsecurity.enums.AuthFailureReason;
+import net.lesson.webfluxsecurity.exception.UnauthorizedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 import reactor.test.StepVerifier;
 
 import java.sql.Date;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.Base64;
 import java.util.UUID;
 
-import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
-@ExtendWith(MockitoExtension.class)
 class JwtHandlerTest {
     private static final String SECRET = "S13e8aENggaMbb_fAkl-nJL4AEVBX43g";
+    private static final Instant NOW = Instant.parse("2023-06-01T12:00:00Z");
+    private static final Clock CLOCK = Clock.fixed(NOW, ZoneOffset.UTC);
+    private static final long CLOCK_SKEW = 30;
 
-    @InjectMocks
+    private TokenRevocationService mockRevocations;
     private JwtHandler jwtHandler;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(jwtHandler, "secret", SECRET);
+        mockRevocations = mock(TokenRevocationService.class);
+        jwtHandler = new JwtHandler(new JwtKeyProvider(SECRET), mockRevocations, CLOCK, CLOCK_SKEW, 100);
     }
 
     @Test
@@ -40,6 +48,7 @@ class JwtHandlerTest {
                 .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
                 .compact();
         Claims claims = Jwts.parser()
+                .setClock(() -> java.util.Date.from(NOW))
                 .setSigningKey(Base64.getEncoder().encodeToString(SECRET.getBytes()))
                 .parseClaimsJws(token)
                 .getBody();
@@ -54,6 +63,94 @@ class JwtHandlerTest {
                 .verifyComplete();
     }
 
+    @Test
+    void checkReusesCachedVerification() {
+        String token = Jwts.builder()
+                .setIssuedAt(java.util.Date.from(NOW))
+                .setId(UUID.randomUUID().toString())
+                .setExpiration(java.util.Date.from(NOW.plus(1, ChronoUnit.HOURS)))
+                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .compact();
+
+        var first = jwtHandler.check(token).block();
+        var second = jwtHandler.check(token).block();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void checkRevokedTokenIsRejected() {
+        String jti = UUID.randomUUID().toString();
+        String token = Jwts.builder()
+                .setIssuedAt(java.util.Date.from(NOW))
+                .setId(jti)
+                .setExpiration(java.util.Date.from(NOW.plus(1, ChronoUnit.HOURS)))
+                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .compact();
+
+        StepVerifier
+                .create(jwtHandler.check(token))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        given(mockRevocations.isRevoked(jti)).willReturn(true);
+
+        StepVerifier
+                .create(jwtHandler.check(token))
+                .expectErrorMatches(ex -> ex instanceof UnauthorizedException && ex.getMessage().equals("Token revoked"))
+                .verify();
+    }
+
+    @Test
+    void checkEllipticCurveTokenResolvedByKid() {
+        var signingKey = JwtSigningKey.generateEllipticCurve(SignatureAlgorithm.ES256);
+        var keyProvider = new JwtKeyProvider(signingKey);
+        var handler = new JwtHandler(keyProvider, mockRevocations, CLOCK, CLOCK_SKEW, 100);
+        String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.kid())
+                .setSubject("1")
+                .setExpiration(java.util.Date.from(NOW.plus(1, ChronoUnit.HOURS)))
+                .signWith(SignatureAlgorithm.ES256, signingKey.signingKey())
+                .compact();
+
+        StepVerifier
+                .create(handler.check(token))
+                .expectNextMatches(verificationResult -> verificationResult.claims.getSubject().equals("1"))
+                .verifyComplete();
+        assertThat(keyProvider.getJwks().get("keys")).asList().hasSize(1);
+    }
+
+    @Test
+    void checkTokenWithUnknownKid() {
+        String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "unknown")
+                .setSubject("1")
+                .setExpiration(java.util.Date.from(NOW.plus(1, ChronoUnit.HOURS)))
+                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .compact();
+
+        StepVerifier
+                .create(jwtHandler.check(token))
+                .expectErrorMatches(ex -> ex instanceof UnauthorizedException unauthorized
+                        && unauthorized.getReason() == AuthFailureReason.TOKEN_BAD_SIGNATURE)
+                .verify();
+    }
+
+    @Test
+    void checkTokenExpiredWithinClockSkew() {
+        String token = Jwts.builder()
+                .setIssuedAt(java.util.Date.from(NOW.minus(1, ChronoUnit.HOURS)))
+                .setId(UUID.randomUUID().toString())
+                .setExpiration(java.util.Date.from(NOW.minusSeconds(CLOCK_SKEW / 2)))
+                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .compact();
+
+        StepVerifier
+                .create(jwtHandler.check(token))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
     @Test
     void checkTokenIsExpired() {
         String token = Jwts.builder()
@@ -63,10 +160,28 @@ class JwtHandlerTest {
                 .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
                 .compact();
 
-        assertThatThrownBy(() -> {
-            jwtHandler.check(token);
-        })
-                .isInstanceOf(ExpiredJwtException.class)
-                .hasMessageContaining("JWT expired at ");
+        StepVerifier
+                .create(jwtHandler.check(token))
+                .expectErrorSatisfies(ex -> {
+                    assertThat(ex).isSameAs(UnauthorizedException.of(AuthFailureReason.TOKEN_EXPIRED));
+                    assertThat(ex.getStackTrace()).isEmpty();
+                    assertThat(ex).hasMessage("Token expired");
+                })
+                .verify();
+    }
+
+    @Test
+    void checkTokenNotYetValid() {
+        String token = Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setNotBefore(java.util.Date.from(NOW.plus(1, ChronoUnit.HOURS)))
+                .setExpiration(java.util.Date.from(NOW.plus(2, ChronoUnit.HOURS)))
+                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(SECRET.getBytes()))
+                .compact();
+
+        StepVerifier
+                .create(jwtHandler.check(token))
+                .expectErrorMatches(ex -> ex == UnauthorizedException.of(AuthFailureReason.TOKEN_NOT_YET_VALID))
+                .verify();
     }
 }
\ No newline at end of file
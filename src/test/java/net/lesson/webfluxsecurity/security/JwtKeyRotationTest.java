@@ -0,0 +1,161 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import net.lesson.webfluxsecurity.domain.SigningKeyEntity;
+import net.lesson.webfluxsecurity.repository.SigningKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.security.Key;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class JwtKeyRotationTest {
+    private static final String SECRET = "S13e8aENggaMbb_fAkl-nJL4AEVBX43g";
+    private static final String KEK = "q3Qb0m8nS5yG0r1ZcM2k9vXw4fT7uJ6hL8pA1dE3sRw=";
+    private static final ZonedDateTime NOW = ZonedDateTime.of(
+            2023, 5, 14, 12, 40, 24, 0,
+            ZoneId.of("Europe/Prague"));
+
+    @Mock
+    private SigningKeyRepository mockRepository;
+    @Mock
+    private TransactionalOperator mockTransactionalOperator;
+
+    private final List<SigningKeyEntity> stored = new ArrayList<>();
+    private JwtKeyProvider keyProvider;
+    private SigningKeyCipher cipher;
+    private JwtKeyRotation rotation;
+
+    @BeforeEach
+    void setUp() {
+        keyProvider = new JwtKeyProvider(SECRET);
+        cipher = new SigningKeyCipher(KEK);
+        rotation = new JwtKeyRotation(keyProvider, mockRepository, cipher, mockTransactionalOperator,
+                Clock.fixed(NOW.toInstant(), NOW.getZone()));
+        ReflectionTestUtils.setField(rotation, "period", 86400L);
+        ReflectionTestUtils.setField(rotation, "activationDelay", 600L);
+        ReflectionTestUtils.setField(rotation, "retainedKeys", 3);
+
+        given(mockRepository.findLatest(anyInt())).willAnswer(invocation -> Flux.fromIterable(List.copyOf(stored)));
+    }
+
+    @Test
+    void firstRotationPublishesPendingKeyAndKeepsBootstrapActive() {
+        givenRotationLock(true);
+        given(mockRepository.save(any(SigningKeyEntity.class))).willAnswer(invocation -> {
+            stored.add(0, invocation.getArgument(0));
+            return Mono.just(invocation.getArgument(0));
+        });
+
+        StepVerifier
+                .create(rotation.refreshKeys())
+                .verifyComplete();
+
+        assertThat(stored).hasSize(1);
+        assertThat(stored.get(0).getActivatesAt()).isEqualTo(NOW.toLocalDateTime().plusSeconds(600));
+        assertThat(keyProvider.getActiveKey()).isEqualTo(keyProvider.getBootstrapKey());
+        assertThat(keyProvider.resolveVerificationKey(stored.get(0).getKid(), "HS256")).isNotNull();
+        assertThat(stored.get(0).getPrivateKey()).startsWith("{aesgcm}");
+    }
+
+    @Test
+    void rotationIsSkippedWhileAnotherNodeHoldsTheLock() {
+        givenRotationLock(false);
+
+        StepVerifier
+                .create(rotation.refreshKeys())
+                .verifyComplete();
+
+        assertThat(stored).isEmpty();
+        verify(mockRepository, never()).save(any(SigningKeyEntity.class));
+        assertThat(keyProvider.getActiveKey()).isEqualTo(keyProvider.getBootstrapKey());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenRotationLock(boolean acquired) {
+        given(mockRepository.tryTransactionLock(anyLong())).willReturn(Mono.just(acquired));
+        given(mockTransactionalOperator.transactional(any(Mono.class))).willAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void activatedKeySignsWhilePreviousKeysStillVerify() {
+        var previous = entity(JwtSigningKey.generate(SignatureAlgorithm.HS256), NOW.toLocalDateTime().minusDays(1));
+        var current = entity(JwtSigningKey.generate(SignatureAlgorithm.HS256), NOW.toLocalDateTime().minusHours(1));
+        stored.addAll(List.of(current, previous));
+
+        StepVerifier
+                .create(rotation.refreshKeys())
+                .verifyComplete();
+
+        assertThat(keyProvider.getActiveKey().kid()).isEqualTo(current.getKid());
+        assertThat(keyProvider.resolveVerificationKey(previous.getKid(), "HS256")).isNotNull();
+        assertThat(keyProvider.resolveVerificationKey(keyProvider.getBootstrapKey().kid(), "HS256")).isNotNull();
+        assertThatThrownBy(() -> keyProvider.resolveVerificationKey("unknown", "HS256"))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void tokenWithoutKidStillVerifiesAgainstBootstrapKeyAfterRotation() {
+        var current = entity(JwtSigningKey.generate(SignatureAlgorithm.HS256), NOW.toLocalDateTime().minusHours(1));
+        stored.add(current);
+        String token = Jwts.builder()
+                .setSubject("1")
+                .signWith(SignatureAlgorithm.HS256, keyProvider.getBootstrapKey().signingKey())
+                .compact();
+
+        StepVerifier
+                .create(rotation.refreshKeys())
+                .verifyComplete();
+
+        assertThat(keyProvider.getActiveKey().kid()).isEqualTo(current.getKid());
+        var claims = Jwts.parser()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return keyProvider.resolveVerificationKey(header.getKeyId(), header.getAlgorithm());
+                    }
+                })
+                .parseClaimsJws(token)
+                .getBody();
+        assertThat(claims.getSubject()).isEqualTo("1");
+    }
+
+    private SigningKeyEntity entity(JwtSigningKey key, LocalDateTime activatesAt) {
+        return SigningKeyEntity.builder()
+                .kid(key.kid())
+                .algorithm(key.algorithm().getValue())
+                .privateKey(cipher.encrypt(key.kid(), key.encodedPrivateKey()))
+                .publicKey(key.encodedPublicKey())
+                .activatesAt(activatesAt)
+                .createdAt(activatesAt)
+                .build();
+    }
+}
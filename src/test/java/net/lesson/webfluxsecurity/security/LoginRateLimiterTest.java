@@ -0,0 +1,51 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class LoginRateLimiterTest {
+    private static final Instant NOW = Instant.parse("2023-06-01T12:00:00Z");
+
+    private SimpleMeterRegistry registry;
+    private Clock clock;
+    private LoginRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        clock = mock(Clock.class);
+        given(clock.millis()).willReturn(NOW.toEpochMilli());
+        rateLimiter = new LoginRateLimiter(registry, clock, 100, 600, 3, 10, 2, 60);
+    }
+
+    @Test
+    void burstUpToCapacityThenThrottled() {
+        IntStream.range(0, 3).forEach(i -> assertThat(rateLimiter.tryAcquireForIp("10.0.0.1")).isTrue());
+
+        assertThat(rateLimiter.tryAcquireForIp("10.0.0.1")).isFalse();
+        assertThat(rateLimiter.tryAcquireForIp("10.0.0.2")).isTrue();
+        assertThat(registry.get("auth.login.throttled").tag("key", "ip").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void tokensAreRefilledOverTime() {
+        assertThat(rateLimiter.tryAcquireForUsername("anbi")).isTrue();
+        assertThat(rateLimiter.tryAcquireForUsername("anbi")).isTrue();
+        assertThat(rateLimiter.tryAcquireForUsername("anbi")).isFalse();
+
+        given(clock.millis()).willReturn(NOW.plusSeconds(60).toEpochMilli());
+
+        assertThat(rateLimiter.tryAcquireForUsername("anbi")).isTrue();
+        assertThat(rateLimiter.tryAcquireForUsername("anbi")).isFalse();
+        assertThat(registry.get("auth.login.throttled").tag("key", "username").counter().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,66 @@
+package net.lesson.webfluxsecurity.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LoginThrottleFilterTest {
+    private static final String LOGIN_PATH = "/api/v1/auth/login";
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private LoginRateLimiter mockRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        mockRateLimiter = mock(LoginRateLimiter.class);
+    }
+
+    @Test
+    void forwardedHeaderIsIgnoredWithoutTrustedProxies() {
+        var filter = new LoginThrottleFilter(mockRateLimiter, List.of());
+        var request = MockServerHttpRequest.post(LOGIN_PATH)
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 40000))
+                .header(FORWARDED_FOR, "198.51.100.1")
+                .build();
+
+        assertThat(filter.clientIp(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void forwardedHeaderIsIgnoredFromUntrustedPeer() {
+        var filter = new LoginThrottleFilter(mockRateLimiter, List.of("10.0.0.0/8"));
+        var request = MockServerHttpRequest.post(LOGIN_PATH)
+                .remoteAddress(new InetSocketAddress("203.0.113.7", 40000))
+                .header(FORWARDED_FOR, "198.51.100.1")
+                .build();
+
+        assertThat(filter.clientIp(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void rightmostUntrustedHopIsUsedBehindTrustedProxy() {
+        var filter = new LoginThrottleFilter(mockRateLimiter, List.of("10.0.0.0/8"));
+        var request = MockServerHttpRequest.post(LOGIN_PATH)
+                .remoteAddress(new InetSocketAddress("10.0.0.2", 40000))
+                .header(FORWARDED_FOR, "198.51.100.1, 203.0.113.7", "10.0.0.5")
+                .build();
+
+        assertThat(filter.clientIp(request)).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void proxyAddressIsUsedWithoutForwardedHeader() {
+        var filter = new LoginThrottleFilter(mockRateLimiter, List.of("10.0.0.0/8"));
+        var request = MockServerHttpRequest.post(LOGIN_PATH)
+                .remoteAddress(new InetSocketAddress("10.0.0.2", 40000))
+                .build();
+
+        assertThat(filter.clientIp(request)).isEqualTo("10.0.0.2");
+    }
+}
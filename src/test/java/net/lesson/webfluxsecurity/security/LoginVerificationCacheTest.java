@@ -0,0 +1,80 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.lesson.webfluxsecurity.enums.UserRole;
+import net.lesson.webfluxsecurity.exception.AuthException;
+import net.lesson.webfluxsecurity.service.UserAuthState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginVerificationCacheTest {
+    private static final UserAuthState USER = new UserAuthState(1L, "Anbi", UserRole.USER, true);
+
+    private LoginVerificationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new LoginVerificationCache(new SimpleMeterRegistry(), 100, 10);
+    }
+
+    @Test
+    void concurrentLoginsShareOneVerification() {
+        var verifications = new AtomicInteger();
+        Sinks.One<UserAuthState> verification = Sinks.one();
+
+        var first = cache.get("Anbi", "!2wdd", () -> {
+            verifications.incrementAndGet();
+            return verification.asMono();
+        });
+        var second = cache.get("Anbi", "!2wdd", () -> {
+            verifications.incrementAndGet();
+            return verification.asMono();
+        });
+
+        StepVerifier
+                .create(first.zipWith(second))
+                .then(() -> verification.tryEmitValue(USER))
+                .expectNextMatches(users -> users.getT1() == USER && users.getT2() == USER)
+                .verifyComplete();
+        assertThat(verifications).hasValue(1);
+    }
+
+    @Test
+    void differentPasswordIsVerifiedSeparately() {
+        var verifications = new AtomicInteger();
+
+        cache.get("Anbi", "!2wdd", () -> Mono.fromSupplier(() -> {
+            verifications.incrementAndGet();
+            return USER;
+        })).block();
+
+        StepVerifier
+                .create(cache.get("Anbi", "wrong", () -> Mono.error(new AuthException("Invalid password", "INVALID_PASSWORD"))))
+                .expectError(AuthException.class)
+                .verify();
+        assertThat(verifications).hasValue(1);
+    }
+
+    @Test
+    void failedVerificationIsNotCached() {
+        var verifications = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier
+                    .create(cache.get("Anbi", "wrong", () -> Mono.defer(() -> {
+                        verifications.incrementAndGet();
+                        return Mono.error(new AuthException("Invalid password", "INVALID_PASSWORD"));
+                    })))
+                    .expectError(AuthException.class)
+                    .verify();
+        }
+        assertThat(verifications).hasValue(2);
+    }
+}
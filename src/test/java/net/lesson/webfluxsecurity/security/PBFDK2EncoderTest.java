@@ -0,0 +1,50 @@
+package net.lesson.webfluxsecurity.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PBFDK2EncoderTest {
+    private static final String SECRET = "FZK2DZ82odqS13e8aENggaMbb_fAkl-nJL4AEVBX43g";
+    private static final String PASSWORD = "#4!wqseR";
+
+    private final PBFDK2Encoder encoder = new PBFDK2Encoder(SECRET, 1000, 256, 64);
+
+    @Test
+    void encodeUsesPerUserSaltAndVersionedFormat() {
+        var first = encoder.encode(PASSWORD);
+        var second = encoder.encode(PASSWORD);
+
+        assertThat(first).startsWith("{pbkdf2}1000$").isNotEqualTo(second);
+        assertThat(encoder.matches(PASSWORD, first)).isTrue();
+        assertThat(encoder.matches(PASSWORD, second)).isTrue();
+        assertThat(encoder.matches("wrong", first)).isFalse();
+        assertThat(encoder.upgradeEncoding(first)).isFalse();
+    }
+
+    @Test
+    void legacyHashStillMatchesAndNeedsUpgrade() {
+        var legacy = new PBFDK2Encoder(SECRET, 64, 256, 64).legacyEncode(PASSWORD);
+
+        assertThat(encoder.matches(PASSWORD, legacy)).isTrue();
+        assertThat(encoder.matches("wrong", legacy)).isFalse();
+        assertThat(encoder.upgradeEncoding(legacy)).isTrue();
+    }
+
+    @Test
+    void changedIterationsNeedUpgrade() {
+        var encoded = new PBFDK2Encoder(SECRET, 500, 256, 64).encode(PASSWORD);
+
+        assertThat(encoder.matches(PASSWORD, encoded)).isTrue();
+        assertThat(encoder.upgradeEncoding(encoded)).isTrue();
+    }
+
+    @Test
+    void malformedHashNeverMatches() {
+        assertThat(encoder.matches(PASSWORD, "{pbkdf2}abc$$")).isFalse();
+        assertThat(encoder.matches(PASSWORD, "{pbkdf2}1000$$")).isFalse();
+        assertThat(encoder.matches(PASSWORD, "{pbkdf2}1000$c2FsdA==$aGFzaA==$")).isFalse();
+        assertThat(encoder.matches(PASSWORD, "not base64!")).isFalse();
+        assertThat(encoder.matches(PASSWORD, null)).isFalse();
+    }
+}
@@ -0,0 +1,207 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.lesson.webfluxsecurity.exception.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.publisher.PublisherProbe;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePasswordHasherTest {
+    private static final String PASSWORD = "2@test!";
+    private static final String ENCODED = "c2VjcmV0";
+
+    @Mock
+    private PasswordEncoder mockPasswordEncoder;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ReactivePasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        hasher.destroy();
+    }
+
+    @Test
+    void encodeOnHasherThread() {
+        hasher = new ReactivePasswordHasher(mockPasswordEncoder, registry, platform(1, 1), 1);
+        given(mockPasswordEncoder.encode(PASSWORD)).willAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("password-hasher-"));
+            return ENCODED;
+        });
+
+        StepVerifier
+                .create(hasher.encode(PASSWORD))
+                .expectNext(ENCODED)
+                .verifyComplete();
+        assertEquals(1, registry.get("auth.hasher.hash").timer().count());
+    }
+
+    @Test
+    void matchesOk() {
+        hasher = new ReactivePasswordHasher(mockPasswordEncoder, registry, platform(1, 1), 1);
+        given(mockPasswordEncoder.matches(PASSWORD, ENCODED)).willReturn(true);
+
+        StepVerifier
+                .create(hasher.matches(PASSWORD, ENCODED))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void rejectWhenSaturated() throws InterruptedException {
+        hasher = new ReactivePasswordHasher(mockPasswordEncoder, registry, platform(1, 1), 1);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        given(mockPasswordEncoder.encode(PASSWORD)).willAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return ENCODED;
+        });
+
+        var running = hasher.encode(PASSWORD).subscribe();
+        started.await();
+        var queued = hasher.encode(PASSWORD).subscribe();
+
+        StepVerifier
+                .create(hasher.encode(PASSWORD))
+                .expectError(ServiceBusyException.class)
+                .verify();
+        assertEquals(1.0, registry.get("auth.hasher.rejected").counter().count());
+
+        release.countDown();
+        running.dispose();
+        queued.dispose();
+    }
+
+    @Test
+    void encodeIfIdleSkipsWhileTasksAreQueued() throws InterruptedException {
+        hasher = new ReactivePasswordHasher(mockPasswordEncoder, registry, platform(1, 1), 1);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        given(mockPasswordEncoder.encode(PASSWORD)).willAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return ENCODED;
+        });
+
+        var running = hasher.encode(PASSWORD).subscribe();
+        started.await();
+        var queued = hasher.encode(PASSWORD).subscribe();
+
+        StepVerifier
+                .create(hasher.encodeIfIdle(PASSWORD))
+                .verifyComplete();
+        assertEquals(0.0, registry.get("auth.hasher.rejected").counter().count());
+
+        release.countDown();
+        running.dispose();
+        queued.dispose();
+    }
+
+    @Test
+    void encodeIfIdleSkipsWhileAllWorkersAreBusy() throws InterruptedException {
+        hasher = new ReactivePasswordHasher(mockPasswordEncoder, registry, platform(1, 1), 1);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        given(mockPasswordEncoder.encode(PASSWORD)).willAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return ENCODED;
+        });
+
+        var running = hasher.encode(PASSWORD).subscribe();
+        started.await();
+
+        StepVerifier
+                .create(hasher.encodeIfIdle(PASSWORD))
+                .verifyComplete();
+
+        release.countDown();
+        running.dispose();
+    }
+
+    @Test
+    void backgroundUpgradesAreBoundedAndCancelledOnDestroy() {
+        hasher = new ReactivePasswordHasher(mockPasswordEncoder, registry, platform(1, 1), 1);
+        PublisherProbe<Void> first = PublisherProbe.of(Mono.never());
+        PublisherProbe<Void> second = PublisherProbe.empty();
+
+        hasher.upgradeInBackground(first.mono());
+        hasher.upgradeInBackground(second.mono());
+
+        first.assertWasSubscribed();
+        second.assertWasNotSubscribed();
+
+        hasher.destroy();
+
+        first.assertWasCancelled();
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsAvailable")
+    void encodeOnVirtualThread() {
+        hasher = new ReactivePasswordHasher(mockPasswordEncoder, registry, virtual(1, 1), 1);
+        given(mockPasswordEncoder.encode(PASSWORD)).willAnswer(invocation -> {
+            assertTrue(Thread.currentThread().getName().startsWith("password-hasher-"));
+            return ENCODED;
+        });
+
+        StepVerifier
+                .create(hasher.encode(PASSWORD))
+                .expectNext(ENCODED)
+                .verifyComplete();
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsAvailable")
+    void virtualModeRejectsBeyondConcurrencyAndQueue() throws InterruptedException {
+        hasher = new ReactivePasswordHasher(mockPasswordEncoder, registry, virtual(1, 1), 1);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        given(mockPasswordEncoder.encode(PASSWORD)).willAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return ENCODED;
+        });
+
+        var running = hasher.encode(PASSWORD).subscribe();
+        started.await();
+        var queued = hasher.encode(PASSWORD).subscribe();
+
+        StepVerifier
+                .create(hasher.encode(PASSWORD))
+                .expectError(ServiceBusyException.class)
+                .verify();
+        assertEquals(1.0, registry.get("auth.hasher.queue.depth").gauge().value());
+
+        release.countDown();
+        running.dispose();
+        queued.dispose();
+    }
+
+    static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    private static BlockingTaskExecutor platform(int poolSize, int queueCapacity) {
+        return BlockingTaskExecutor.create(BlockingTaskExecutor.Mode.PLATFORM, "password-hasher-", poolSize, queueCapacity);
+    }
+
+    private static BlockingTaskExecutor virtual(int concurrency, int queueCapacity) {
+        return BlockingTaskExecutor.create(BlockingTaskExecutor.Mode.VIRTUAL, "password-hasher-", concurrency, queueCapacity);
+    }
+}
@@ -0,0 +1,146 @@
+package net.lesson.webfluxsecurity.security;
+
+import net.lesson.webfluxsecurity.domain.RefreshTokenEntity;
+import net.lesson.webfluxsecurity.exception.AuthException;
+import net.lesson.webfluxsecurity.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+    private static final Long USER_ID = 7L;
+    private static final String FAMILY_ID = "5d0f3c5e-3b2a-4e8f-9c55-0b7c3f1e2a11";
+    private static final ZonedDateTime NOW = ZonedDateTime.of(
+            2023, 5, 14, 12, 40, 24, 0,
+            ZoneId.of("Europe/Prague"));
+
+    @Mock
+    private RefreshTokenRepository mockRepository;
+
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RefreshTokenService(mockRepository, Clock.fixed(NOW.toInstant(), NOW.getZone()));
+        ReflectionTestUtils.setField(service, "expiration", 3600L);
+    }
+
+    @Test
+    void issueStoresOnlyTokenHash() {
+        var captor = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        given(mockRepository.save(captor.capture())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier
+                .create(service.issue(USER_ID))
+                .consumeNextWith(refreshToken -> {
+                    assertThat(refreshToken.userId()).isEqualTo(USER_ID);
+                    assertThat(captor.getValue().getTokenHash()).hasSize(64).isNotEqualTo(refreshToken.token());
+                    assertThat(captor.getValue().getExpiresAt()).isEqualTo(NOW.toLocalDateTime().plusSeconds(3600));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void rotateIssuesTokenInSameFamily() {
+        var stored = storedToken();
+        var captor = ArgumentCaptor.forClass(RefreshTokenEntity.class);
+        given(mockRepository.findByTokenHash(anyString())).willReturn(Mono.just(stored));
+        given(mockRepository.markUsed(stored.getId())).willReturn(Mono.just(1));
+        given(mockRepository.save(captor.capture())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier
+                .create(service.rotate("presented"))
+                .expectNextMatches(refreshToken -> refreshToken.userId().equals(USER_ID))
+                .verifyComplete();
+        assertThat(captor.getValue().getFamilyId()).isEqualTo(FAMILY_ID);
+    }
+
+    @Test
+    void reusedTokenRevokesFamily() {
+        var stored = storedToken().toBuilder()
+                .used(true)
+                .build();
+        given(mockRepository.findByTokenHash(anyString())).willReturn(Mono.just(stored));
+        given(mockRepository.markUsed(stored.getId())).willReturn(Mono.just(0));
+        given(mockRepository.revokeFamily(FAMILY_ID)).willReturn(Mono.just(2));
+
+        StepVerifier
+                .create(service.rotate("presented"))
+                .expectErrorMatches(throwable -> throwable instanceof AuthException
+                        && ((AuthException) throwable).getErrorCode().equals("REFRESH_TOKEN_REUSED"))
+                .verify();
+        verify(mockRepository, never()).save(any(RefreshTokenEntity.class));
+    }
+
+    @Test
+    void missingTokenRejected() {
+        StepVerifier
+                .create(service.rotate(null))
+                .expectError(AuthException.class)
+                .verify();
+        verify(mockRepository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    void expiredTokenRejected() {
+        var stored = storedToken().toBuilder()
+                .expiresAt(NOW.toLocalDateTime().minusSeconds(1))
+                .build();
+        given(mockRepository.findByTokenHash(anyString())).willReturn(Mono.just(stored));
+
+        StepVerifier
+                .create(service.rotate("presented"))
+                .expectError(AuthException.class)
+                .verify();
+    }
+
+    @Test
+    void revokeRevokesOwnFamily() {
+        given(mockRepository.findByTokenHash(anyString())).willReturn(Mono.just(storedToken()));
+        given(mockRepository.revokeFamily(FAMILY_ID)).willReturn(Mono.just(2));
+
+        StepVerifier
+                .create(service.revoke("presented", USER_ID))
+                .verifyComplete();
+        verify(mockRepository).revokeFamily(FAMILY_ID);
+    }
+
+    @Test
+    void revokeIgnoresTokenOfAnotherUser() {
+        given(mockRepository.findByTokenHash(anyString())).willReturn(Mono.just(storedToken()));
+
+        StepVerifier
+                .create(service.revoke("presented", USER_ID + 1))
+                .verifyComplete();
+        verify(mockRepository, never()).revokeFamily(anyString());
+    }
+
+    private RefreshTokenEntity storedToken() {
+        return RefreshTokenEntity.builder()
+                .id(3L)
+                .userId(USER_ID)
+                .familyId(FAMILY_ID)
+                .tokenHash("hash")
+                .expiresAt(NOW.toLocalDateTime().plusHours(1))
+                .createdAt(NOW.toLocalDateTime())
+                .build();
+    }
+}
@@ -1,24 +1,36 @@
 package net.lesson.webfluxsecurity.security;
 
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.lesson.webfluxsecurity.domain.UserEntity;
 import net.lesson.webfluxsecurity.enums.UserRole;
 import net.lesson.webfluxsecurity.exception.AuthException;
+import net.lesson.webfluxsecurity.exception.TooManyRequestsException;
+import net.lesson.webfluxsecurity.service.UserAuthState;
 import net.lesson.webfluxsecurity.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
-import java.time.LocalDate;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,17 +39,36 @@ class SecurityServiceTest {
     private static final String PASSWORD = "2@test!";
     private static final String SECRET = "ENggaMbb_fAkl";
     private static final String TOKEN = "eyJhbGciOiJIUzI1NiJ9.";
+    private static final String REFRESH_TOKEN = "mE4Ojk3ZnSAXr6hYyLqV0q0F2yQZ1cYw9cxk2n0Sg3E";
+    private static final String ROTATED_REFRESH_TOKEN = "Zk3n1cDq8pXoR2w7Vh5yTQ0aLs9bU4eJm6gFiK1oPzA";
+    private static final String JTI = "0f8fad5b-d9cb-469f-a165-70867728950e";
+    private static final Instant NOW = Instant.parse("2023-05-31T10:15:30.250Z");
+    private static final int EXPIRATION = 3600;
 
     @Mock
-    private PasswordEncoder mockPasswordEncoder;
+    private ReactivePasswordHasher mockPasswordHasher;
     @Mock
     private UserService mockUserService;
+    @Mock
+    private RefreshTokenService mockRefreshTokenService;
+    @Mock
+    private TokenRevocationService mockRevocations;
+    @Mock
+    private LoginRateLimiter mockRateLimiter;
+    @Mock
+    private Clock clock;
+    @Spy
+    private JwtKeyProvider keyProvider = new JwtKeyProvider(SECRET);
+    @Spy
+    private AuthMetrics metrics = new AuthMetrics(new SimpleMeterRegistry());
+    @Spy
+    private LoginVerificationCache verifiedLogins = new LoginVerificationCache(new SimpleMeterRegistry(), 100, 10);
     @InjectMocks
     private SecurityService service;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(service, "secret", SECRET);
+        ReflectionTestUtils.setField(service, "expiration", EXPIRATION);
     }
 
     @Test
@@ -45,8 +76,13 @@ class SecurityServiceTest {
         var tokenDetails = createTokenDetails();
         var entity = createEntity();
 
+        given(mockRateLimiter.tryAcquireForUsername(USERNAME)).willReturn(true);
         given(mockUserService.getUserByName(USERNAME)).willReturn(Mono.just(entity));
-        given(mockPasswordEncoder.matches(PASSWORD, entity.getPassword())).willReturn(true);
+        given(mockPasswordHasher.matches(PASSWORD, entity.getPassword())).willReturn(Mono.just(true));
+        given(mockRefreshTokenService.issue(entity.getId()))
+                .willReturn(Mono.just(new RefreshTokenService.RefreshToken(entity.getId(), REFRESH_TOKEN)));
+        given(mockUserService.getAuthState(entity.getId())).willReturn(Mono.just(UserAuthState.from(entity)));
+        given(clock.instant()).willReturn(NOW);
 
         var actualResult = service.authenticate(USERNAME, PASSWORD);
 
@@ -55,13 +91,137 @@ class SecurityServiceTest {
                 .consumeNextWith(details -> {
                     assertEquals("User is enabled", tokenDetails.userId(), details.userId());
                     assertEquals("User token is ok", !tokenDetails.token().isEmpty(), !details.token().isEmpty());
+                    assertEquals("Refresh token is issued", REFRESH_TOKEN, details.refreshToken());
+                    assertEquals("Token issued now", tokenDetails.issuedAt(), details.issuedAt());
+                    assertEquals("Token honors expiration", tokenDetails.expiresAt(), details.expiresAt());
                 })
                 .verifyComplete();
     }
+
+    @Test
+    void repeatedLoginReusesVerification() {
+        var entity = createEntity();
+
+        given(mockRateLimiter.tryAcquireForUsername(USERNAME)).willReturn(true);
+        given(mockUserService.getUserByName(USERNAME)).willReturn(Mono.just(entity));
+        given(mockPasswordHasher.matches(PASSWORD, entity.getPassword())).willReturn(Mono.just(true));
+        given(mockUserService.getAuthState(entity.getId())).willReturn(Mono.just(UserAuthState.from(entity)));
+        given(mockRefreshTokenService.issue(entity.getId()))
+                .willReturn(Mono.just(new RefreshTokenService.RefreshToken(entity.getId(), REFRESH_TOKEN)));
+        given(clock.instant()).willReturn(NOW);
+
+        StepVerifier
+                .create(service.authenticate(USERNAME, PASSWORD).then(service.authenticate(USERNAME, PASSWORD)))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(mockPasswordHasher, times(1)).matches(PASSWORD, entity.getPassword());
+        verify(mockRateLimiter, times(1)).tryAcquireForUsername(USERNAME);
+        verify(mockUserService, times(2)).getAuthState(entity.getId());
+    }
+
+    @Test
+    void repeatedLoginRechecksDisabledAccount() {
+        var entity = createEntity();
+
+        given(mockRateLimiter.tryAcquireForUsername(USERNAME)).willReturn(true);
+        given(mockUserService.getUserByName(USERNAME)).willReturn(Mono.just(entity));
+        given(mockPasswordHasher.matches(PASSWORD, entity.getPassword())).willReturn(Mono.just(true));
+        given(mockUserService.getAuthState(entity.getId())).willReturn(
+                Mono.just(UserAuthState.from(entity)),
+                Mono.just(UserAuthState.from(entity.toBuilder().enabled(false).build())));
+        given(mockRefreshTokenService.issue(entity.getId()))
+                .willReturn(Mono.just(new RefreshTokenService.RefreshToken(entity.getId(), REFRESH_TOKEN)));
+        given(clock.instant()).willReturn(NOW);
+
+        StepVerifier
+                .create(service.authenticate(USERNAME, PASSWORD).then(service.authenticate(USERNAME, PASSWORD)))
+                .expectErrorMatches(throwable -> throwable instanceof AuthException)
+                .verify();
+    }
+
+    @Test
+    void authenticateUpgradesOutdatedHashWithoutWaitingForIt() {
+        var entity = createEntity();
+        Mono<Void> upgrade = Mono.never();
+
+        given(mockRateLimiter.tryAcquireForUsername(USERNAME)).willReturn(true);
+        given(mockUserService.getUserByName(USERNAME)).willReturn(Mono.just(entity));
+        given(mockPasswordHasher.matches(PASSWORD, entity.getPassword())).willReturn(Mono.just(true));
+        given(mockPasswordHasher.upgradeEncoding(entity.getPassword())).willReturn(true);
+        given(mockUserService.upgradePassword(entity, PASSWORD)).willReturn(upgrade);
+        given(mockUserService.getAuthState(entity.getId())).willReturn(Mono.just(UserAuthState.from(entity)));
+        given(mockRefreshTokenService.issue(entity.getId()))
+                .willReturn(Mono.just(new RefreshTokenService.RefreshToken(entity.getId(), REFRESH_TOKEN)));
+        given(clock.instant()).willReturn(NOW);
+
+        StepVerifier
+                .create(service.authenticate(USERNAME, PASSWORD))
+                .expectNextCount(1)
+                .verifyComplete();
+        verify(mockPasswordHasher).upgradeInBackground(upgrade);
+    }
+
+    @Test
+    void refreshOk() {
+        var entity = createEntity();
+
+        given(mockRefreshTokenService.rotate(REFRESH_TOKEN))
+                .willReturn(Mono.just(new RefreshTokenService.RefreshToken(entity.getId(), ROTATED_REFRESH_TOKEN)));
+        given(mockUserService.getAuthState(entity.getId())).willReturn(Mono.just(UserAuthState.from(entity)));
+        given(clock.instant()).willReturn(NOW);
+
+        var actualResult = service.refresh(REFRESH_TOKEN);
+
+        StepVerifier
+                .create(actualResult)
+                .consumeNextWith(details -> {
+                    assertEquals("User id is kept", entity.getId(), details.userId());
+                    assertEquals("Refresh token is rotated", ROTATED_REFRESH_TOKEN, details.refreshToken());
+                })
+                .verifyComplete();
+        verifyNoInteractions(mockPasswordHasher);
+    }
+
+    @Test
+    void refreshFailedForDisabledUser() {
+        var entity = createEntity().toBuilder()
+                .enabled(false)
+                .build();
+
+        given(mockRefreshTokenService.rotate(REFRESH_TOKEN))
+                .willReturn(Mono.just(new RefreshTokenService.RefreshToken(entity.getId(), ROTATED_REFRESH_TOKEN)));
+        given(mockUserService.getAuthState(entity.getId())).willReturn(Mono.just(UserAuthState.from(entity)));
+
+        var actualResult = service.refresh(REFRESH_TOKEN);
+
+        StepVerifier
+                .create(actualResult)
+                .expectErrorMatches(throwable -> throwable instanceof AuthException)
+                .verify();
+    }
     @Test
     void authenticateFailedAccount() {
         var entity = createEntity();
 
+        given(mockRateLimiter.tryAcquireForUsername(USERNAME)).willReturn(true);
+        given(mockUserService.getUserByName(USERNAME)).willReturn(Mono.just(entity));
+        given(mockPasswordHasher.matches(PASSWORD, entity.getPassword())).willReturn(Mono.just(false));
+
+        var actualResult = service.authenticate(USERNAME, PASSWORD);
+
+        StepVerifier
+                .create(actualResult)
+                .expectErrorMatches(throwable -> throwable instanceof AuthException)
+                .verify();
+    }
+
+    @Test
+    void authenticateDisabledAccountSkipsHashing() {
+        var entity = createEntity().toBuilder()
+                .enabled(false)
+                .build();
+
+        given(mockRateLimiter.tryAcquireForUsername(USERNAME)).willReturn(true);
         given(mockUserService.getUserByName(USERNAME)).willReturn(Mono.just(entity));
 
         var actualResult = service.authenticate(USERNAME, PASSWORD);
@@ -70,14 +230,57 @@ class SecurityServiceTest {
                 .create(actualResult)
                 .expectErrorMatches(throwable -> throwable instanceof AuthException)
                 .verify();
+        verifyNoInteractions(mockPasswordHasher);
+    }
+
+    @Test
+    void authenticateThrottledSkipsLookupAndHashing() {
+        given(mockRateLimiter.tryAcquireForUsername(USERNAME)).willReturn(false);
+
+        var actualResult = service.authenticate(USERNAME, PASSWORD);
+
+        StepVerifier
+                .create(actualResult)
+                .expectErrorMatches(throwable -> throwable instanceof TooManyRequestsException)
+                .verify();
+        verifyNoInteractions(mockUserService, mockPasswordHasher);
+    }
+
+    @Test
+    void logoutRevokesAccessAndRefreshTokens() {
+        var expiresAt = NOW.truncatedTo(ChronoUnit.SECONDS).plusSeconds(EXPIRATION);
+        var claims = new DefaultClaims()
+                .setId(JTI)
+                .setSubject("1")
+                .setExpiration(Date.from(expiresAt));
+
+        given(mockRevocations.revoke(JTI, 1L, expiresAt)).willReturn(Mono.empty());
+        given(mockRefreshTokenService.revoke(REFRESH_TOKEN, 1L)).willReturn(Mono.empty());
+
+        StepVerifier
+                .create(service.logout(claims, REFRESH_TOKEN))
+                .verifyComplete();
+        verify(mockRefreshTokenService).revoke(REFRESH_TOKEN, 1L);
+    }
+
+    @Test
+    void logoutWithoutJtiSkipsAccessTokenRevocation() {
+        var claims = new DefaultClaims()
+                .setSubject("1")
+                .setExpiration(Date.from(NOW.plusSeconds(EXPIRATION)));
+
+        StepVerifier
+                .create(service.logout(claims, null))
+                .verifyComplete();
+        verify(mockRevocations, never()).revoke(any(), any(), any());
     }
 
     private TokenDetails createTokenDetails() {
         return TokenDetails.builder()
                 .userId(1L)
                 .token(TOKEN)
-                .issuedAt(LocalDate.of(2023, 5, 31))
-                .expiresAt(LocalDate.of(2023, 6, 1))
+                .issuedAt(Instant.parse("2023-05-31T10:15:30Z"))
+                .expiresAt(Instant.parse("2023-05-31T11:15:30Z"))
                 .build();
     }
 
@@ -0,0 +1,24 @@
+package net.lesson.webfluxsecurity.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningKeyCipherTest {
+    private static final String KEK = "q3Qb0m8nS5yG0r1ZcM2k9vXw4fT7uJ6hL8pA1dE3sRw=";
+
+    private final SigningKeyCipher cipher = new SigningKeyCipher(KEK);
+
+    @Test
+    void encryptedKeyIsBoundToItsKid() {
+        var key = JwtSigningKey.generate(SignatureAlgorithm.ES256);
+        var encrypted = cipher.encrypt(key.kid(), key.encodedPrivateKey());
+
+        assertThat(cipher.decrypt(key.kid(), encrypted)).isEqualTo(key.encodedPrivateKey());
+        assertThat(cipher.decrypt(key.kid(), key.encodedPrivateKey())).isEqualTo(key.encodedPrivateKey());
+        assertThatThrownBy(() -> cipher.decrypt("other", encrypted))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
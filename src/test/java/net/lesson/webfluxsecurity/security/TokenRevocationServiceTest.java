@@ -0,0 +1,82 @@
+package net.lesson.webfluxsecurity.security;
+
+import net.lesson.webfluxsecurity.domain.RevokedTokenEntity;
+import net.lesson.webfluxsecurity.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+    private static final String JTI = "0f8fad5b-d9cb-469f-a165-70867728950e";
+    private static final ZonedDateTime NOW = ZonedDateTime.of(
+            2023, 5, 14, 12, 40, 24, 0,
+            ZoneId.of("Europe/Prague"));
+
+    @Mock
+    private RevokedTokenRepository mockRepository;
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationService(mockRepository, Clock.fixed(NOW.toInstant(), NOW.getZone()));
+    }
+
+    @Test
+    void revokeIsVisibleLocallyAtOnce() {
+        given(mockRepository.save(any())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier
+                .create(service.revoke(JTI, 1L, NOW.plusHours(1).toInstant()))
+                .verifyComplete();
+
+        assertThat(service.isRevoked(JTI)).isTrue();
+        assertThat(service.isRevoked("other")).isFalse();
+        assertThat(service.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void revokeTwiceIsIgnored() {
+        given(mockRepository.save(any())).willReturn(Mono.error(new DuplicateKeyException("jti")));
+
+        StepVerifier
+                .create(service.revoke(JTI, 1L, NOW.plusHours(1).toInstant()))
+                .verifyComplete();
+    }
+
+    @Test
+    void syncLoadsRevocationsFromOtherNodesAndPurgesExpired() {
+        var now = NOW.toLocalDateTime();
+        var stored = RevokedTokenEntity.builder()
+                .jti(JTI)
+                .userId(1L)
+                .expiresAt(now.plusHours(1))
+                .revokedAt(now.minusMinutes(30))
+                .build();
+        given(mockRepository.findUnexpired(now)).willReturn(Flux.just(stored));
+        given(mockRepository.deleteExpired(now)).willReturn(Mono.just(0));
+        given(mockRepository.save(any())).willAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        StepVerifier
+                .create(service.revoke("expired", 1L, NOW.minusMinutes(1).toInstant()).then(service.sync()))
+                .verifyComplete();
+
+        assertThat(service.isRevoked(JTI)).isTrue();
+        assertThat(service.isRevoked("expired")).isFalse();
+    }
+}
@@ -0,0 +1,99 @@
+package net.lesson.webfluxsecurity.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.lesson.webfluxsecurity.domain.UserEntity;
+import net.lesson.webfluxsecurity.enums.UserRole;
+import net.lesson.webfluxsecurity.repository.UserRepository;
+import net.lesson.webfluxsecurity.security.AuthMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserAuthStateCacheTest {
+    @Mock
+    private UserRepository mockRepository;
+
+    private UserAuthStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        var registry = new SimpleMeterRegistry();
+        cache = new UserAuthStateCache(mockRepository, registry, new AuthMetrics(registry), 100, 60);
+    }
+
+    @Test
+    void secondLookupServedFromCache() {
+        var entity = createEntity();
+        given(mockRepository.findById(entity.getId())).willReturn(Mono.just(entity));
+
+        StepVerifier
+                .create(cache.get(entity.getId()).then(cache.get(entity.getId())))
+                .expectNext(UserAuthState.from(entity))
+                .verifyComplete();
+        verify(mockRepository, times(1)).findById(entity.getId());
+    }
+
+    @Test
+    void concurrentLookupsShareOneQuery() {
+        var entity = createEntity();
+        Sinks.One<UserEntity> query = Sinks.one();
+        given(mockRepository.findById(entity.getId())).willReturn(query.asMono());
+
+        var first = cache.get(entity.getId());
+        var second = cache.get(entity.getId());
+
+        StepVerifier
+                .create(first.zipWith(second))
+                .then(() -> query.tryEmitValue(entity))
+                .expectNextMatches(states -> states.getT1().equals(states.getT2()))
+                .verifyComplete();
+        verify(mockRepository, times(1)).findById(entity.getId());
+    }
+
+    @Test
+    void invalidateForcesReload() {
+        var entity = createEntity();
+        given(mockRepository.findById(entity.getId())).willReturn(Mono.just(entity));
+
+        cache.get(entity.getId()).block();
+        cache.invalidate(entity.getId());
+        cache.get(entity.getId()).block();
+
+        verify(mockRepository, times(2)).findById(entity.getId());
+    }
+
+    @Test
+    void unknownUserIsEmpty() {
+        given(mockRepository.findById(42L)).willReturn(Mono.empty());
+
+        StepVerifier
+                .create(cache.get(42L))
+                .verifyComplete();
+    }
+
+    private UserEntity createEntity() {
+        return UserEntity.builder()
+                .id(1L)
+                .username("Anbi")
+                .role(UserRole.USER)
+                .password("!2wdd")
+                .firstName("Anko")
+                .lastName("Puben")
+                .enabled(true)
+                .createdAt(LocalDateTime.of(2023, 5, 14, 12, 40, 24))
+                .updatedAt(LocalDateTime.of(2023, 5, 14, 12, 40, 24))
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package net.lesson.webfluxsecurity.service;
+
+import net.lesson.webfluxsecurity.domain.UserEntity;
+import net.lesson.webfluxsecurity.enums.UserImportStatus;
+import net.lesson.webfluxsecurity.exception.ServiceBusyException;
+import net.lesson.webfluxsecurity.repository.UserBatchRepository;
+import net.lesson.webfluxsecurity.security.ReactivePasswordHasher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+    private static final ZonedDateTime NOW = ZonedDateTime.of(
+            2023, 5, 14, 12, 40, 24, 0,
+            ZoneId.of("Europe/Prague"));
+
+    @Mock
+    private UserBatchRepository mockRepository;
+    @Mock
+    private ReactivePasswordHasher mockPasswordHasher;
+
+    private UserImportService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserImportService(Clock.fixed(NOW.toInstant(), NOW.getZone()), mockRepository,
+                mockPasswordHasher, 2, 2);
+    }
+
+    @Test
+    void importReportsEveryRowInOrder() {
+        given(mockPasswordHasher.encode(anyString())).willAnswer(invocation -> Mono.just("hashed"));
+        Set<String> stored = new HashSet<>(Set.of("taken"));
+        given(mockRepository.insertIgnoringDuplicates(anyList())).willAnswer(invocation -> {
+            List<UserEntity> users = invocation.getArgument(0);
+            return Flux.fromIterable(users)
+                    .filter(user -> stored.add(user.getUsername()))
+                    .map(user -> user.toBuilder().id((long) user.getUsername().length()).build());
+        });
+
+        var users = Flux.just(user("anbi"), user("taken"), user(""), user("anko"), user("anko"));
+
+        StepVerifier
+                .create(service.importUsers(users))
+                .expectNextMatches(result -> result.line() == 1 && result.status() == UserImportStatus.CREATED
+                        && result.id() == 4L)
+                .expectNextMatches(result -> result.line() == 2 && result.status() == UserImportStatus.DUPLICATE)
+                .expectNextMatches(result -> result.line() == 3 && result.status() == UserImportStatus.INVALID)
+                .expectNextMatches(result -> result.line() == 4 && result.status() == UserImportStatus.CREATED)
+                .expectNextMatches(result -> result.line() == 5 && result.status() == UserImportStatus.DUPLICATE)
+                .verifyComplete();
+    }
+
+    @Test
+    void importStoresHashedPasswords() {
+        var captor = ArgumentCaptor.forClass(List.class);
+        given(mockPasswordHasher.encode("!2wdd")).willReturn(Mono.just("hashed"));
+        given(mockRepository.insertIgnoringDuplicates(captor.capture())).willReturn(Flux.empty());
+
+        service.importUsers(Flux.just(user("anbi"))).blockLast();
+
+        var stored = (UserEntity) captor.getValue().get(0);
+        assertThat(stored.getPassword()).isEqualTo("hashed");
+        assertThat(stored.isEnabled()).isTrue();
+        assertThat(stored.getCreatedAt()).isEqualTo(NOW.toLocalDateTime());
+    }
+
+    @Test
+    void hashingFailureMarksRowFailed() {
+        given(mockPasswordHasher.encode(anyString()))
+                .willReturn(Mono.error(new IllegalStateException("broken")));
+
+        StepVerifier
+                .create(service.importUsers(Flux.just(user("anbi"))))
+                .expectNextMatches(result -> result.status() == UserImportStatus.FAILED)
+                .verifyComplete();
+        verify(mockRepository, never()).insertIgnoringDuplicates(anyList());
+    }
+
+    @Test
+    void batchFailureMarksPendingRowsFailed() {
+        given(mockPasswordHasher.encode(anyString())).willReturn(Mono.just("hashed"));
+        given(mockRepository.insertIgnoringDuplicates(anyList()))
+                .willReturn(Flux.error(new ServiceBusyException("db down")));
+
+        StepVerifier
+                .create(service.importUsers(Flux.just(user("anbi"), user(null))))
+                .expectNextMatches(result -> result.status() == UserImportStatus.FAILED)
+                .expectNextMatches(result -> result.status() == UserImportStatus.INVALID)
+                .verifyComplete();
+    }
+
+    private UserEntity user(String username) {
+        return UserEntity.builder()
+                .username(username)
+                .password("!2wdd")
+                .firstName("Anko")
+                .lastName("Puben")
+                .build();
+    }
+}
@@ -1,14 +1,20 @@
 package net.lesson.webfluxsecurity.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import net.lesson.webfluxsecurity.domain.UserEntity;
 import net.lesson.webfluxsecurity.enums.UserRole;
+import net.lesson.webfluxsecurity.repository.UserFilter;
 import net.lesson.webfluxsecurity.repository.UserRepository;
+import net.lesson.webfluxsecurity.repository.UserSearchRepository;
+import net.lesson.webfluxsecurity.security.AuthMetrics;
+import net.lesson.webfluxsecurity.security.ReactivePasswordHasher;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -17,32 +23,50 @@ import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
     private final String PASSWORD = "!2wdd";
     @Mock
-    private PasswordEncoder mockPasswordEncoder;
+    private ReactivePasswordHasher mockPasswordHasher;
     @Mock
     private UserRepository mockRepository;
     @Mock
+    private UserAuthStateCache mockAuthStateCache;
+    @Mock
+    private UserSearchRepository mockSearchRepository;
+    @Mock
     private Clock clock;
+    @Spy
+    private AuthMetrics metrics = new AuthMetrics(new SimpleMeterRegistry());
+    @Spy
+    private UserCache userCache = new UserCache(new SimpleMeterRegistry(), true, 100, 60);
 
-    @InjectMocks
     private UserService service;
 
     private static final ZonedDateTime NOW = ZonedDateTime.of(
             2023, 5, 14, 12, 40, 24, 0,
             ZoneId.of("Europe/Prague"));
 
+    @BeforeEach
+    void setUp() {
+        service = service(500);
+    }
+
     @Test
     void registerUserOk() {
         var entity = createEntity();
 
-        given(mockPasswordEncoder.encode(any(CharSequence.class))).willReturn(PASSWORD);
+        given(mockPasswordHasher.encode(any(CharSequence.class))).willReturn(Mono.just(PASSWORD));
         given(clock.getZone()).willReturn(NOW.getZone());
         given(clock.instant()).willReturn(NOW.toInstant());
         given(mockRepository.save(entity)).willReturn(Mono.just(entity));
@@ -55,6 +79,29 @@ class UserServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void disableUserInvalidatesAuthState() {
+        var entity = createEntity();
+        var disabled = entity.toBuilder()
+                .enabled(false)
+                .updatedAt(NOW.toLocalDateTime())
+                .build();
+
+        given(clock.getZone()).willReturn(NOW.getZone());
+        given(clock.instant()).willReturn(NOW.toInstant());
+        given(mockRepository.findById(entity.getId())).willReturn(Mono.just(entity));
+        given(mockRepository.save(disabled)).willReturn(Mono.just(disabled));
+
+        var actualResult = service.disableUser(entity.getId());
+
+        StepVerifier
+                .create(actualResult)
+                .expectNextMatches(user -> !user.isEnabled())
+                .verifyComplete();
+        verify(mockAuthStateCache).invalidate(entity.getId());
+        verify(userCache).invalidate(entity.getId(), entity.getUsername());
+    }
+
     @Test
     void getUserById() {
         var entity = createEntity();
@@ -68,6 +115,41 @@ class UserServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void getUserByIdServedFromCache() {
+        var entity = createEntity();
+        given(mockRepository.findById(entity.getId())).willReturn(Mono.just(entity));
+
+        StepVerifier.create(service.getUserById(entity.getId())).expectNext(entity).verifyComplete();
+        StepVerifier.create(service.getUserById(entity.getId())).expectNext(entity).verifyComplete();
+
+        verify(mockRepository, times(1)).findById(entity.getId());
+    }
+
+    @Test
+    void getUserByIdReloadedAfterInvalidation() {
+        var entity = createEntity();
+        given(mockRepository.findById(entity.getId())).willReturn(Mono.just(entity));
+
+        StepVerifier.create(service.getUserById(entity.getId())).expectNext(entity).verifyComplete();
+        userCache.invalidate(entity.getId(), entity.getUsername());
+        StepVerifier.create(service.getUserById(entity.getId())).expectNext(entity).verifyComplete();
+
+        verify(mockRepository, times(2)).findById(entity.getId());
+    }
+
+    @Test
+    void getUserVersionServedFromCachedUser() {
+        var entity = createEntity();
+        given(mockRepository.findById(entity.getId())).willReturn(Mono.just(entity));
+
+        StepVerifier.create(service.getUserById(entity.getId())).expectNext(entity).verifyComplete();
+        StepVerifier.create(service.getUserVersion(entity.getId())).expectNext(entity.getUpdatedAt()).verifyComplete();
+
+        verify(mockRepository, times(1)).findById(entity.getId());
+        verify(mockRepository, never()).findUpdatedAtById(entity.getId());
+    }
+
     @Test
     void getUserByIdNotFound() {
         var entity = createEntity();
@@ -107,6 +189,102 @@ class UserServiceTest {
                 .verifyComplete();
     }
 
+    @Test
+    void upgradePasswordSwapsHashOnlyIfUnchanged() {
+        var entity = createEntity();
+        var upgraded = "{pbkdf2}210000$c2FsdA==$aGFzaA==";
+
+        given(mockPasswordHasher.encodeIfIdle(PASSWORD)).willReturn(Mono.just(upgraded));
+        given(mockRepository.updatePassword(entity.getId(), entity.getPassword(), upgraded)).willReturn(Mono.just(1));
+
+        StepVerifier
+                .create(service.upgradePassword(entity, PASSWORD))
+                .verifyComplete();
+        verify(mockRepository).updatePassword(entity.getId(), entity.getPassword(), upgraded);
+    }
+
+    @Test
+    void upgradePasswordKeepsCacheWhenHashChangedConcurrently() {
+        var entity = createEntity();
+        var upgraded = "{pbkdf2}210000$c2FsdA==$aGFzaA==";
+
+        given(mockPasswordHasher.encodeIfIdle(PASSWORD)).willReturn(Mono.just(upgraded));
+        given(mockRepository.updatePassword(entity.getId(), entity.getPassword(), upgraded)).willReturn(Mono.just(0));
+
+        StepVerifier
+                .create(service.upgradePassword(entity, PASSWORD))
+                .verifyComplete();
+        verify(userCache, never()).invalidate(anyLong(), anyString());
+    }
+
+    @Test
+    void upgradePasswordFailureIsSwallowed() {
+        var entity = createEntity();
+
+        given(mockPasswordHasher.encodeIfIdle(PASSWORD)).willReturn(Mono.error(new IllegalStateException("busy")));
+
+        StepVerifier
+                .create(service.upgradePassword(entity, PASSWORD))
+                .verifyComplete();
+    }
+
+    @Test
+    void upgradePasswordSkippedWhileHasherIsBusy() {
+        var entity = createEntity();
+
+        given(mockPasswordHasher.encodeIfIdle(PASSWORD)).willReturn(Mono.empty());
+
+        StepVerifier
+                .create(service.upgradePassword(entity, PASSWORD))
+                .verifyComplete();
+        verify(mockRepository, never()).updatePassword(anyLong(), anyString(), anyString());
+    }
+
+    @Test
+    void listUsersStreamsAllPagesByKeyset() {
+        var filter = new UserFilter(UserRole.USER, true, null, null);
+        service = service(2);
+
+        given(mockSearchRepository.findPage(filter, 0L, 2)).willReturn(Flux.just(entity(1L), entity(2L)));
+        given(mockSearchRepository.findPage(filter, 2L, 2)).willReturn(Flux.just(entity(5L), entity(8L)));
+        given(mockSearchRepository.findPage(filter, 8L, 2)).willReturn(Flux.just(entity(9L)));
+
+        StepVerifier
+                .create(service.listUsers(filter, 0L, null).map(UserEntity::getId))
+                .expectNext(1L, 2L, 5L, 8L, 9L)
+                .verifyComplete();
+    }
+
+    @Test
+    void listUsersWithLimitReadsSinglePage() {
+        var filter = new UserFilter(null, null, null, null);
+        service = service(100);
+
+        given(mockSearchRepository.findPage(filter, 10L, 100)).willReturn(Flux.just(entity(11L)));
+
+        StepVerifier
+                .create(service.listUsers(filter, 10L, 1000).map(UserEntity::getId))
+                .expectNext(11L)
+                .verifyComplete();
+    }
+
+    @Test
+    void nonPositivePageSizeIsRejected() {
+        assertThatThrownBy(() -> service(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private UserService service(int pageSize) {
+        return new UserService(clock, mockRepository, mockPasswordHasher, mockAuthStateCache, metrics,
+                mockSearchRepository, userCache, pageSize);
+    }
+
+    private UserEntity entity(Long id) {
+        return createEntity().toBuilder()
+                .id(id)
+                .build();
+    }
+
     private UserEntity createEntity() {
         String firstName = "Anko";
         String lastName = "Puben";